@@ -13,7 +13,7 @@ subprojects {
     apply(plugin = "com.diffplug.spotless")
     apply(plugin = "com.github.node-gradle.node")
 
-    val targetJavaVersion = 21
+    val targetJavaVersion = 22
     java {
         val javaVersion = JavaVersion.toVersion(targetJavaVersion)
         sourceCompatibility = javaVersion
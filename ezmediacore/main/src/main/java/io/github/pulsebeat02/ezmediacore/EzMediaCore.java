@@ -29,6 +29,8 @@ import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.listener.RegistrationListener;
 import io.github.pulsebeat02.ezmediacore.logging.LibraryLogger;
 import io.github.pulsebeat02.ezmediacore.logging.Logger;
+import io.github.pulsebeat02.ezmediacore.metrics.MetricRegistry;
+import io.github.pulsebeat02.ezmediacore.pipeline.baked.RenderCache;
 import io.github.pulsebeat02.ezmediacore.reflect.PacketToolsProvider;
 import io.github.pulsebeat02.ezmediacore.util.io.FileUtils;
 
@@ -55,6 +57,8 @@ public final class EzMediaCore {
   private Path imagePath;
   private Logger logger;
   private Listener registrationListener;
+  private RenderCache renderCache;
+  private volatile MetricRegistry metrics = MetricRegistry.disabled();
 
   public EzMediaCore(final Plugin plugin) {
     this(plugin, SelectCapability.DEFAULT_CAPABILITIES);
@@ -68,6 +72,7 @@ public final class EzMediaCore {
     this.loadDependencies(capabilities);
     this.registerEvents();
     this.createFolders();
+    this.createRenderCache();
   }
 
   private void assignPaths(final Plugin plugin) {
@@ -105,7 +110,29 @@ public final class EzMediaCore {
     FileUtils.createDirectoryIfNotExistsExceptionally(this.imagePath);
   }
 
+  private void createRenderCache() {
+    final Path directory = this.libraryPath.resolve("render-cache");
+    this.renderCache = new RenderCache(directory, RenderCache.DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Starts collecting metrics and exposes them as MBeans under the {@code
+   * io.github.pulsebeat02.ezmediacore} domain. Pass {@link #getMetrics()} to {@code
+   * BasicPipelineResult#setMetrics} to include a pipeline.
+   *
+   * @return the registry
+   */
+  public synchronized MetricRegistry enableMetrics() {
+    if (!this.metrics.isEnabled()) {
+      final MetricRegistry registry = new MetricRegistry();
+      registry.registerMBeans("io.github.pulsebeat02.ezmediacore");
+      this.metrics = registry;
+    }
+    return this.metrics;
+  }
+
   public void shutdown() {
+    this.metrics.unregisterMBeans();
     HandlerList.unregisterAll(this.registrationListener);
     this.logger.release();
   }
@@ -133,4 +160,18 @@ public final class EzMediaCore {
   public Logger getLogger() {
     return this.logger;
   }
+
+  public MetricRegistry getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Returns the cache of rendered map streams kept under the library path. It is capped at {@link
+   * RenderCache#DEFAULT_MAX_SIZE} until {@link RenderCache#setMaxSize(long)} is called.
+   *
+   * @return the render cache
+   */
+  public RenderCache getRenderCache() {
+    return this.renderCache;
+  }
 }
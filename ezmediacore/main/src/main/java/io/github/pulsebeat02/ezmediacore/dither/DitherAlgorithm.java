@@ -24,12 +24,99 @@
 package io.github.pulsebeat02.ezmediacore.dither;
 
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 public interface DitherAlgorithm {
 
-  byte[] ditherIntoMinecraft(final int[] buffer, final int width);
+  /**
+   * Dithers a frame of packed ARGB integers into a caller-owned array, so repeated calls can reuse
+   * the same output storage.
+   *
+   * @param buffer the frame
+   * @param width the width of the frame
+   * @param output the array receiving one palette index per pixel
+   * @param offset the index in {@code output} to write the first pixel to
+   */
+  void ditherIntoMinecraft(final int[] buffer, final int width, final byte[] output, final int offset);
+
+  default byte[] ditherIntoMinecraft(final int[] buffer, final int width) {
+    final byte[] data = new byte[buffer.length];
+    this.ditherIntoMinecraft(buffer, width, data, 0);
+    return data;
+  }
+
+  /**
+   * Dithers a frame straight out of a raw frame buffer, such as the image plane of a decoded
+   * frame. Algorithms that work pixel by pixel read the buffer in place; the rest unpack it once.
+   *
+   * @param buffer the frame buffer
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @param stride the distance between the start of two rows in bytes
+   * @param layout how the pixels are packed
+   * @param output the array receiving one palette index per pixel
+   * @param offset the index in {@code output} to write the first pixel to
+   */
+  default void ditherIntoMinecraft(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    this.ditherIntoMinecraft(layout.unpack(buffer, width, height, stride), width, output, offset);
+  }
+
+  default byte[] ditherIntoMinecraft(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout) {
+    final byte[] data = new byte[width * height];
+    this.ditherIntoMinecraft(buffer, width, height, stride, layout, data, 0);
+    return data;
+  }
+
+  default byte[] ditherIntoMinecraft(
+      final ByteBuffer buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout) {
+    return this.ditherIntoMinecraft(MemorySegment.ofBuffer(buffer), width, height, stride, layout);
+  }
+
+  /**
+   * Dithers a frame of packed ARGB integers held in an {@link IntBuffer}.
+   *
+   * @param buffer the frame buffer, in native byte order
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @param stride the distance between the start of two rows in pixels
+   * @return one palette index per pixel
+   */
+  default byte[] ditherIntoMinecraft(
+      final IntBuffer buffer, final int width, final int height, final int stride) {
+    final MemorySegment segment = MemorySegment.ofBuffer(buffer);
+    return this.ditherIntoMinecraft(segment, width, height, stride << 2, PixelLayout.INT_ARGB);
+  }
 
   void dither(final int[] buffer, final int width);
 
   ColorPalette getPalette();
+
+  /**
+   * Identifies the output of this algorithm, apart from its palette, for caches of dithered
+   * frames. Two algorithms with the same key and palette must dither every frame identically, so
+   * algorithms whose output depends on their settings include them.
+   *
+   * @return the cache key
+   */
+  default String getCacheKey() {
+    return this.getClass().getName();
+  }
 }
@@ -23,7 +23,28 @@
  */
 package io.github.pulsebeat02.ezmediacore.dither;
 
+import java.lang.foreign.MemorySegment;
+
 public interface NativeDitherAlgorithm extends DitherAlgorithm {
 
-  byte[] ditherIntoMinecraftNatively(final int[] buffer, final int width);
+  void ditherIntoMinecraftNatively(
+      final int[] buffer, final int width, final byte[] output, final int offset);
+
+  default byte[] ditherIntoMinecraftNatively(final int[] buffer, final int width) {
+    final byte[] data = new byte[buffer.length];
+    this.ditherIntoMinecraftNatively(buffer, width, data, 0);
+    return data;
+  }
+
+  /**
+   * Dithers a frame of packed ARGB integers that already lives in native memory. Neither segment
+   * is copied on the way in; the result is written into the caller-owned output segment, one
+   * palette index per pixel.
+   *
+   * @param buffer native segment of {@code width * height} ARGB integers
+   * @param width the width of the frame
+   * @param output native or heap segment of at least {@code width * height} bytes
+   */
+  void ditherIntoMinecraftNatively(
+      final MemorySegment buffer, final int width, final MemorySegment output);
 }
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/** Describes how pixels are packed in a raw frame buffer. */
+public enum PixelLayout {
+
+  /** One {@code 0xAARRGGBB} integer per pixel in native byte order, the same as an {@code int[]}. */
+  INT_ARGB(4) {
+    @Override
+    public int getRGB(final MemorySegment segment, final long offset) {
+      return segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+    }
+  },
+
+  /** Four bytes per pixel ordered blue, green, red, then an ignored padding or alpha byte. */
+  BGR32(4) {
+    @Override
+    public int getRGB(final MemorySegment segment, final long offset) {
+      return 0xFF000000 | segment.get(LITTLE_ENDIAN_INT, offset);
+    }
+  },
+
+  /** Three bytes per pixel ordered red, green, blue. */
+  RGB24(3) {
+    @Override
+    public int getRGB(final MemorySegment segment, final long offset) {
+      final int r = segment.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
+      final int g = segment.get(ValueLayout.JAVA_BYTE, offset + 1) & 0xFF;
+      final int b = segment.get(ValueLayout.JAVA_BYTE, offset + 2) & 0xFF;
+      return 0xFF000000 | r << 16 | g << 8 | b;
+    }
+  };
+
+  private static final ValueLayout.OfInt LITTLE_ENDIAN_INT =
+      ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private final int bytesPerPixel;
+
+  PixelLayout(final int bytesPerPixel) {
+    this.bytesPerPixel = bytesPerPixel;
+  }
+
+  /**
+   * Reads a single pixel as a packed {@code 0xAARRGGBB} integer.
+   *
+   * @param segment the frame buffer
+   * @param offset the byte offset of the pixel
+   * @return the pixel in ARGB form
+   */
+  public abstract int getRGB(final MemorySegment segment, final long offset);
+
+  /**
+   * Copies a whole frame into a packed ARGB array, the form taken by {@link
+   * DitherAlgorithm#ditherIntoMinecraft(int[], int)}.
+   *
+   * @param segment the frame buffer
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @param stride the distance between the start of two rows in bytes
+   * @return the unpacked frame
+   */
+  public int[] unpack(final MemorySegment segment, final int width, final int height, final int stride) {
+    final int[] rgb = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      final long row = (long) y * stride;
+      final int yIndex = y * width;
+      if (this == INT_ARGB) {
+        MemorySegment.copy(segment, ValueLayout.JAVA_INT_UNALIGNED, row, rgb, yIndex, width);
+        continue;
+      }
+      for (int x = 0; x < width; x++) {
+        rgb[yIndex + x] = this.getRGB(segment, row + (long) x * this.bytesPerPixel);
+      }
+    }
+    return rgb;
+  }
+
+  public int getBytesPerPixel() {
+    return this.bytesPerPixel;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither;
+
+/**
+ * A dither algorithm whose output for a pixel depends only on its color and its position, never on
+ * its neighbours. Such algorithms can dither any row on its own, in any order.
+ */
+public interface PositionalDitherAlgorithm extends DitherAlgorithm {
+
+  /**
+   * Dithers a single row of packed ARGB integers.
+   *
+   * @param buffer the array holding the row
+   * @param bufferOffset the index in {@code buffer} of the first pixel of the row
+   * @param x the frame column of the first pixel
+   * @param y the frame row
+   * @param length the number of pixels to dither
+   * @param output the array receiving one palette index per pixel
+   * @param outputOffset the index in {@code output} to write the first pixel to
+   */
+  void ditherRowIntoMinecraft(
+      final int[] buffer,
+      final int bufferOffset,
+      final int x,
+      final int y,
+      final int length,
+      final byte[] output,
+      final int outputOffset);
+
+  @Override
+  default void ditherIntoMinecraft(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
+    final int height = buffer.length / width;
+    for (int y = 0; y < height; y++) {
+      final int yIndex = y * width;
+      this.ditherRowIntoMinecraft(buffer, yIndex, 0, y, width, output, offset + yIndex);
+    }
+  }
+}
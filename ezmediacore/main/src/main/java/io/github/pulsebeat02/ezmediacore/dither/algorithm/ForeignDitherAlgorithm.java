@@ -24,22 +24,26 @@
 package io.github.pulsebeat02.ezmediacore.dither.algorithm;
 
 import io.github.pulsebeat02.ezmediacore.dither.NativeDitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.dither.palette.DefaultPalette;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
-import java.util.function.BiFunction;
+import io.github.pulsebeat02.ezmediacore.natives.NativeColorPalette;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 
 public abstract class ForeignDitherAlgorithm implements NativeDitherAlgorithm {
 
-  private final BiFunction<int[], Integer, byte[]> function;
   private final ColorPalette palette;
+  private final boolean useNative;
 
   public ForeignDitherAlgorithm(final ColorPalette palette, final boolean useNative) {
     if (useNative) {
       this.tryUsingNative();
     }
     this.palette = palette;
-    this.function = useNative ? this::ditherIntoMinecraftNatively : this::standardMinecraftDither;
+    this.useNative = useNative;
   }
 
   public ForeignDitherAlgorithm() {
@@ -57,15 +61,81 @@ public abstract class ForeignDitherAlgorithm implements NativeDitherAlgorithm {
         "Your current platform does not support native dithering!");
   }
 
-  public abstract byte[] standardMinecraftDither(int[] buffer, int width);
+  public abstract void standardMinecraftDither(
+      final int[] buffer, final int width, final byte[] output, final int offset);
+
+  public byte[] standardMinecraftDither(final int[] buffer, final int width) {
+    final byte[] data = new byte[buffer.length];
+    this.standardMinecraftDither(buffer, width, data, 0);
+    return data;
+  }
+
+  public void standardMinecraftDither(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    this.standardMinecraftDither(layout.unpack(buffer, width, height, stride), width, output, offset);
+  }
+
+  @Override
+  public void ditherIntoMinecraft(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
+    if (this.useNative) {
+      this.ditherIntoMinecraftNatively(buffer, width, output, offset);
+    } else {
+      this.standardMinecraftDither(buffer, width, output, offset);
+    }
+  }
 
   @Override
-  public byte[] ditherIntoMinecraft(final int  [] buffer, final int width) {
-    return this.function.apply(buffer, width);
+  public void ditherIntoMinecraft(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    if (!this.useNative) {
+      this.standardMinecraftDither(buffer, width, height, stride, layout, output, offset);
+      return;
+    }
+    final int length = width * height;
+    if (layout != PixelLayout.INT_ARGB || stride != width << 2 || !buffer.isNative()) {
+      final int[] rgb = layout.unpack(buffer, width, height, stride);
+      this.ditherIntoMinecraftNatively(rgb, width, output, offset);
+      return;
+    }
+    final MemorySegment input = buffer.asSlice(0, (long) length << 2);
+    final MemorySegment segment = MemorySegment.ofArray(output).asSlice(offset, length);
+    this.ditherIntoMinecraftNatively(input, width, segment);
+  }
+
+  @Override
+  public void ditherIntoMinecraftNatively(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
+    try (final Arena arena = Arena.ofConfined()) {
+      final MemorySegment input = arena.allocateFrom(ValueLayout.JAVA_INT, buffer);
+      final MemorySegment segment = MemorySegment.ofArray(output).asSlice(offset, buffer.length);
+      this.ditherIntoMinecraftNatively(input, width, segment);
+    }
+  }
+
+  protected NativeColorPalette getNativePalette() {
+    return this.palette.getNativePalette();
   }
 
   @Override
   public ColorPalette getPalette() {
     return this.palette;
   }
+
+  @Override
+  public String getCacheKey() {
+    return this.useNative ? this.getClass().getName() + ":native" : this.getClass().getName();
+  }
 }
@@ -25,13 +25,11 @@ package io.github.pulsebeat02.ezmediacore.dither.algorithm.error;
 
 import static java.util.Objects.requireNonNull;
 
-import com.sun.jna.Pointer;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ForeignDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
 import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.lang.foreign.MemorySegment;
 
 public final class FilterLiteDither extends ForeignDitherAlgorithm {
 
@@ -148,15 +146,14 @@ public final class FilterLiteDither extends ForeignDitherAlgorithm {
   }
 
   @Override
-  public byte[] standardMinecraftDither(
-      final int  [] buffer, final int width) {
+  public void standardMinecraftDither(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
     final ColorPalette palette = this.getPalette();
     final int length = buffer.length;
     final int height = length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
     final int[][] ditherBuffer = new int[2][width << 2];
-    final ByteBuf data = Unpooled.buffer(length);
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
       final int yIndex = y * width;
@@ -195,7 +192,7 @@ public final class FilterLiteDither extends ForeignDitherAlgorithm {
             buf2[bufferIndex - 2] = delta_g >> 2;
             buf2[bufferIndex - 1] = delta_b >> 2;
           }
-          data.setByte(index, DitherUtils.getBestColor(palette, r, g, b));
+          output[offset + index] = DitherUtils.getBestColor(palette, r, g, b);
         }
       } else {
         int bufferIndex = width + (width << 1) - 1;
@@ -232,23 +229,16 @@ public final class FilterLiteDither extends ForeignDitherAlgorithm {
             buf2[bufferIndex + 2] = delta_g >> 2;
             buf2[bufferIndex + 1] = delta_r >> 2;
           }
-          data.setByte(index, DitherUtils.getBestColor(palette, r, g, b));
+          output[offset + index] = DitherUtils.getBestColor(palette, r, g, b);
         }
       }
     }
-    return data.array();
   }
 
   @Override
-  public byte[] ditherIntoMinecraftNatively(
-      final int  [] buffer, final int width) {
-    final ColorPalette palette = this.getPalette();
-    final int[] full = palette.getFullColorMap();
-    final byte[] colors = palette.getColorMap();
+  public void ditherIntoMinecraftNatively(
+      final MemorySegment buffer, final int width, final MemorySegment output) {
     final DitherLibC library = requireNonNull(DitherLibC.INSTANCE);
-    final Pointer pointer = library.filterLiteDither(full, colors, buffer, width);
-    final byte[] array = pointer.getByteArray(0L, buffer.length);
-    final ByteBuf data = Unpooled.buffer(array.length);
-    return data.array();
+    library.filterLiteDither(this.getNativePalette(), buffer, width, output);
   }
 }
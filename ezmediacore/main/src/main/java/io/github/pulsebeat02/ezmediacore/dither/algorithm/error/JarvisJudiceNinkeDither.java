@@ -3,8 +3,7 @@ package io.github.pulsebeat02.ezmediacore.dither.algorithm.error;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ForeignDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.lang.foreign.MemorySegment;
 
 public final class JarvisJudiceNinkeDither extends ForeignDitherAlgorithm {
 
@@ -138,13 +137,13 @@ public final class JarvisJudiceNinkeDither extends ForeignDitherAlgorithm {
     }
   }
   @Override
-  public byte[] standardMinecraftDither(final int[] buffer, final int width) {
+  public void standardMinecraftDither(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
     final ColorPalette palette = this.getPalette();
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
     final int[][] dither_buffer = new int[3][width + width << 1];
-    final ByteBuf data = Unpooled.buffer(buffer.length);
 
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
@@ -207,7 +206,7 @@ public final class JarvisJudiceNinkeDither extends ForeignDitherAlgorithm {
             }
           }
 
-          data.setByte(index, DitherUtils.getBestColor(palette, r, g, b));
+          output[offset + index] = DitherUtils.getBestColor(palette, r, g, b);
         }
       } else {
         int bufferIndex = width + (width << 1) - 1;
@@ -266,15 +265,15 @@ public final class JarvisJudiceNinkeDither extends ForeignDitherAlgorithm {
               }
             }
           }
-          data.setByte(index, DitherUtils.getBestColor(palette, r, g, b));
+          output[offset + index] = DitherUtils.getBestColor(palette, r, g, b);
         }
       }
     }
-    return data.array();
   }
 
   @Override
-  public byte[] ditherIntoMinecraftNatively(final int[] buffer, final int width) {
+  public void ditherIntoMinecraftNatively(
+      final MemorySegment buffer, final int width, final MemorySegment output) {
     throw new UnsupportedOperationException();
   }
 }
\ No newline at end of file
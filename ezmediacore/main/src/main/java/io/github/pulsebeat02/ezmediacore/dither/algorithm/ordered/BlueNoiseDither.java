@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
+import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Threshold dither using a tileable blue-noise texture. Like {@link OrderedDither} every pixel is
+ * processed independently, but the mask has no low frequency structure, so there is none of the
+ * Bayer cross-hatching. The mask is fixed, so static content dithers identically every frame.
+ */
+public final class BlueNoiseDither implements PositionalDitherAlgorithm {
+
+  public static final float DEFAULT_STRENGTH = 0.005f;
+
+  private final ColorPalette palette;
+  private final float strength;
+  private final int[] precalc;
+
+  public BlueNoiseDither(final ColorPalette palette) {
+    this(palette, DEFAULT_STRENGTH);
+  }
+
+  public BlueNoiseDither(final ColorPalette palette, final float strength) {
+    this.palette = palette;
+    this.strength = strength;
+    this.precalc = this.calculateOffsets(strength);
+  }
+
+  private int[] calculateOffsets(final float strength) {
+    final int[] ranks = BlueNoiseTexture.getRanks();
+    final int length = ranks.length;
+    final float scale = 65535.0f * strength;
+    final int[] offsets = new int[length];
+    for (int i = 0; i < length; i++) {
+      offsets[i] = Math.round(scale * ((ranks[i] + 0.5f) / length - 0.5f));
+    }
+    return offsets;
+  }
+
+  @Override
+  public void ditherRowIntoMinecraft(
+      final int[] buffer,
+      final int bufferOffset,
+      final int x,
+      final int y,
+      final int length,
+      final byte[] output,
+      final int outputOffset) {
+    final int row = (y & BlueNoiseTexture.MASK) << BlueNoiseTexture.SHIFT;
+    for (int i = 0; i < length; i++) {
+      final int color = buffer[bufferOffset + i];
+      final int threshold = this.precalc[row | x + i & BlueNoiseTexture.MASK];
+      int r = color >> 16 & 0xFF;
+      int g = color >> 8 & 0xFF;
+      int b = color & 0xFF;
+      r = (r += threshold) > 255 ? 255 : Math.max(r, 0);
+      g = (g += threshold) > 255 ? 255 : Math.max(g, 0);
+      b = (b += threshold) > 255 ? 255 : Math.max(b, 0);
+      output[outputOffset + i] = DitherUtils.getBestColor(this.palette, r, g, b);
+    }
+  }
+
+  @Override
+  public void ditherIntoMinecraft(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    for (int y = 0; y < height; y++) {
+      final long row = (long) y * stride;
+      final int yIndex = y * width;
+      final int noise = (y & BlueNoiseTexture.MASK) << BlueNoiseTexture.SHIFT;
+      for (int x = 0; x < width; x++) {
+        final int color = layout.getRGB(buffer, row + (long) x * bytesPerPixel);
+        final int threshold = this.precalc[noise | x & BlueNoiseTexture.MASK];
+        int r = color >> 16 & 0xFF;
+        int g = color >> 8 & 0xFF;
+        int b = color & 0xFF;
+        r = (r += threshold) > 255 ? 255 : Math.max(r, 0);
+        g = (g += threshold) > 255 ? 255 : Math.max(g, 0);
+        b = (b += threshold) > 255 ? 255 : Math.max(b, 0);
+        output[offset + yIndex + x] = DitherUtils.getBestColor(this.palette, r, g, b);
+      }
+    }
+  }
+
+  @Override
+  public void dither(final int[] buffer, final int width) {
+    final int height = buffer.length / width;
+    for (int y = 0; y < height; y++) {
+      final int yIndex = y * width;
+      final int row = (y & BlueNoiseTexture.MASK) << BlueNoiseTexture.SHIFT;
+      for (int x = 0; x < width; x++) {
+        final int index = yIndex + x;
+        final int color = buffer[index];
+        final int threshold = this.precalc[row | x & BlueNoiseTexture.MASK];
+        int r = color >> 16 & 0xFF;
+        int g = color >> 8 & 0xFF;
+        int b = color & 0xFF;
+        r = (r += threshold) > 255 ? 255 : Math.max(r, 0);
+        g = (g += threshold) > 255 ? 255 : Math.max(g, 0);
+        b = (b += threshold) > 255 ? 255 : Math.max(b, 0);
+        buffer[index] = DitherUtils.getBestColorNormal(this.palette, r, g, b);
+      }
+    }
+  }
+
+  @Override
+  public ColorPalette getPalette() {
+    return this.palette;
+  }
+
+  @Override
+  public String getCacheKey() {
+    return this.getClass().getName() + ":" + this.strength;
+  }
+
+  public float getStrength() {
+    return this.strength;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.github.pulsebeat02.ezmediacore.json.GsonProvider;
+import io.github.pulsebeat02.ezmediacore.util.io.ResourceUtils;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+/**
+ * Tileable 64x64 blue-noise threshold texture generated with the void-and-cluster method (toroidal
+ * Gaussian energy, sigma 1.5). Each cell holds its rank in {@code [0, 4096)}.
+ */
+public final class BlueNoiseTexture {
+
+  public static final int SIZE = 64;
+  public static final int MASK = SIZE - 1;
+  public static final int SHIFT = 6;
+
+  private static final String TEXTURE_PATH = "/bluenoise.json";
+  private static final int[] RANKS;
+
+  static {
+    final Gson gson = GsonProvider.getSimple();
+    try (final Reader reader = ResourceUtils.getResourceAsInputStream(TEXTURE_PATH)) {
+      final TypeToken<int[][]> token = new TypeToken<>() {};
+      final Type type = token.getType();
+      final int[][] matrix = gson.fromJson(reader, type);
+      RANKS = new int[SIZE * SIZE];
+      for (int y = 0; y < SIZE; y++) {
+        System.arraycopy(matrix[y], 0, RANKS, y << SHIFT, SIZE);
+      }
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private BlueNoiseTexture() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static int getRank(final int x, final int y) {
+    return RANKS[(y & MASK) << SHIFT | x & MASK];
+  }
+
+  public static int[] getRanks() {
+    return RANKS.clone();
+  }
+}
@@ -23,15 +23,16 @@
  */
 package io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered;
 
-import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 
 
 /** See https://github.com/makeworld-the-better-one/dither/blob/master/pixelmappers.go */
-public final class OrderedDither implements DitherAlgorithm {
+public final class OrderedDither implements PositionalDitherAlgorithm {
 
   private final ColorPalette palette;
   private final float[][] precalc;
@@ -46,25 +47,52 @@ public final class OrderedDither implements DitherAlgorithm {
   }
 
   @Override
-  public byte[] ditherIntoMinecraft(final int  [] buffer, final int width) {
-    final int length = buffer.length;
-    final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
+  public void ditherRowIntoMinecraft(
+      final int[] buffer,
+      final int bufferOffset,
+      final int x,
+      final int y,
+      final int length,
+      final byte[] output,
+      final int outputOffset) {
+    final float[] row = this.precalc[y % this.ydim];
+    for (int i = 0; i < length; i++) {
+      final int color = buffer[bufferOffset + i];
+      final float threshold = row[(x + i) % this.xdim];
+      int r = color >> 16 & 0xFF;
+      int g = color >> 8 & 0xFF;
+      int b = color & 0xFF;
+      r = (r += threshold) > 255 ? 255 : Math.max(r, 0);
+      g = (g += threshold) > 255 ? 255 : Math.max(g, 0);
+      b = (b += threshold) > 255 ? 255 : Math.max(b, 0);
+      output[outputOffset + i] = DitherUtils.getBestColor(this.palette, r, g, b);
+    }
+  }
+
+  @Override
+  public void ditherIntoMinecraft(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    final int bytesPerPixel = layout.getBytesPerPixel();
     for (int y = 0; y < height; y++) {
+      final long row = (long) y * stride;
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
-        final int index = yIndex + x;
-        final int color = buffer[index];
+        final int color = layout.getRGB(buffer, row + (long) x * bytesPerPixel);
         int r = color >> 16 & 0xFF;
         int g = color >> 8 & 0xFF;
         int b = color & 0xFF;
         r = (r += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : Math.max(r, 0);
         g = (g += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : Math.max(g, 0);
         b = (b += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : Math.max(b, 0);
-        data.writeByte(DitherUtils.getBestColor(this.palette, r, g, b));
+        output[offset + yIndex + x] = DitherUtils.getBestColor(this.palette, r, g, b);
       }
     }
-    return data.array();
   }
 
   @Override
@@ -90,4 +118,9 @@ public final class OrderedDither implements DitherAlgorithm {
   public ColorPalette getPalette() {
     return this.palette;
   }
+
+  @Override
+  public String getCacheKey() {
+    return this.getClass().getName() + ":" + Arrays.deepToString(this.precalc);
+  }
 }
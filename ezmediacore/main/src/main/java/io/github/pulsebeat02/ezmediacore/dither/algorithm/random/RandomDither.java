@@ -25,34 +25,44 @@ package io.github.pulsebeat02.ezmediacore.dither.algorithm.random;
 
 import static java.util.Objects.requireNonNull;
 
-import com.sun.jna.Pointer;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ForeignDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
 import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.lang.foreign.MemorySegment;
 
-import java.util.random.RandomGenerator;
-
-
-
-public final class RandomDither extends ForeignDitherAlgorithm {
+/**
+ * Adds uniform noise in {@code [-weight, weight]} to every channel before picking the closest
+ * palette color. The noise is a hash of the pixel position, the frame number and the seed, so the
+ * output is deterministic and every pixel can be processed independently on any thread.
+ */
+public final class RandomDither extends ForeignDitherAlgorithm
+    implements PositionalDitherAlgorithm {
 
   public static final int LIGHT_WEIGHT = 32;
   public static final int NORMAL_WEIGHT = 64;
   public static final int HEAVY_WEIGHT = 128;
-  private static final RandomGenerator RANDOM = new Xoroshiro128PlusRandom();
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
 
   private final int weight;
-  private final int min;
-  private final int max;
+  private final int range;
+  private final long seed;
 
-  public RandomDither(final ColorPalette palette, final int weight, final boolean useNative) {
+  private volatile long frame;
+  private volatile long frameSeed;
+
+  public RandomDither(final ColorPalette palette, final int weight, final long seed, final boolean useNative) {
     super(palette, useNative);
     this.weight = weight;
-    this.min = -weight;
-    this.max = weight + 1;
+    this.range = (weight << 1) + 1;
+    this.seed = seed;
+    this.setFrame(0);
+  }
+
+  public RandomDither(final ColorPalette palette, final int weight, final boolean useNative) {
+    this(palette, weight, 0L, useNative);
   }
 
   public RandomDither(final ColorPalette palette, final int weight) {
@@ -60,64 +70,130 @@ public final class RandomDither extends ForeignDitherAlgorithm {
   }
 
   @Override
-  public byte[] standardMinecraftDither(
-      final int  [] buffer, final int width) {
+  public void standardMinecraftDither(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
+    final int height = buffer.length / width;
+    for (int y = 0; y < height; y++) {
+      final int yIndex = y * width;
+      this.ditherRowIntoMinecraft(buffer, yIndex, 0, y, width, output, offset + yIndex);
+    }
+  }
+
+  @Override
+  public void ditherRowIntoMinecraft(
+      final int[] buffer,
+      final int bufferOffset,
+      final int x,
+      final int y,
+      final int length,
+      final byte[] output,
+      final int outputOffset) {
     final ColorPalette palette = this.getPalette();
-    final int length = buffer.length;
-    final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
+    final long frameSeed = this.frameSeed;
+    for (int i = 0; i < length; i++) {
+      final int color = buffer[bufferOffset + i];
+      final long noise = noise(frameSeed, x + i, y);
+      int r = (color >> 16) & 0xFF;
+      int g = (color >> 8) & 0xFF;
+      int b = (color) & 0xFF;
+      r = (r += this.channel(noise, 0)) > 255 ? 255 : Math.max(r, 0);
+      g = (g += this.channel(noise, 16)) > 255 ? 255 : Math.max(g, 0);
+      b = (b += this.channel(noise, 32)) > 255 ? 255 : Math.max(b, 0);
+      output[outputOffset + i] = DitherUtils.getBestColor(palette, r, g, b);
+    }
+  }
+
+  @Override
+  public void standardMinecraftDither(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    final ColorPalette palette = this.getPalette();
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    final long frameSeed = this.frameSeed;
     for (int y = 0; y < height; y++) {
+      final long row = (long) y * stride;
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
-        final int index = yIndex + x;
-        final int color = buffer[index];
+        final int color = layout.getRGB(buffer, row + (long) x * bytesPerPixel);
+        final long noise = noise(frameSeed, x, y);
         int r = (color >> 16) & 0xFF;
         int g = (color >> 8) & 0xFF;
         int b = (color) & 0xFF;
-        r = (r += this.random()) > 255 ? 255 : Math.max(r, 0);
-        g = (g += this.random()) > 255 ? 255 : Math.max(g, 0);
-        b = (b += this.random()) > 255 ? 255 : Math.max(b, 0);
-        data.setByte(index, DitherUtils.getBestColor(palette, r, g, b));
+        r = (r += this.channel(noise, 0)) > 255 ? 255 : Math.max(r, 0);
+        g = (g += this.channel(noise, 16)) > 255 ? 255 : Math.max(g, 0);
+        b = (b += this.channel(noise, 32)) > 255 ? 255 : Math.max(b, 0);
+        output[offset + yIndex + x] = DitherUtils.getBestColor(palette, r, g, b);
       }
     }
-    return data.array();
   }
 
   @Override
   public void dither(final int  [] buffer, final int width) {
     final ColorPalette palette = this.getPalette();
+    final long frameSeed = this.frameSeed;
     final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
         final int index = yIndex + x;
         final int color = buffer[index];
+        final long noise = noise(frameSeed, x, y);
         int r = (color >> 16) & 0xFF;
         int g = (color >> 8) & 0xFF;
         int b = (color) & 0xFF;
-        r = (r += this.random()) > 255 ? 255 : Math.max(r, 0);
-        g = (g += this.random()) > 255 ? 255 : Math.max(g, 0);
-        b = (b += this.random()) > 255 ? 255 : Math.max(b, 0);
+        r = (r += this.channel(noise, 0)) > 255 ? 255 : Math.max(r, 0);
+        g = (g += this.channel(noise, 16)) > 255 ? 255 : Math.max(g, 0);
+        b = (b += this.channel(noise, 32)) > 255 ? 255 : Math.max(b, 0);
         buffer[index] = DitherUtils.getBestColorNormal(palette, r, g, b);
       }
     }
   }
 
   @Override
-  public byte[] ditherIntoMinecraftNatively(
-      final int  [] buffer, final int width) {
-    final ColorPalette palette = this.getPalette();
-    final int[] full = palette.getFullColorMap();
-    final byte[] colors = palette.getColorMap();
+  public void ditherIntoMinecraftNatively(
+      final MemorySegment buffer, final int width, final MemorySegment output) {
     final DitherLibC library = requireNonNull(DitherLibC.INSTANCE);
-    final Pointer pointer =
-        library.randomDither(full, colors, buffer, width, this.weight);
-    final byte[] array = pointer.getByteArray(0L, buffer.length);
-    final ByteBuf data = Unpooled.buffer(array.length);
-    return data.array();
+    library.randomDither(this.getNativePalette(), buffer, width, this.weight, output);
+  }
+
+  private static long noise(final long frameSeed, final int x, final int y) {
+    return MurmurHash3.hash(frameSeed ^ ((long) y << 32 | x & 0xFFFFFFFFL));
+  }
+
+  private int channel(final long noise, final int shift) {
+    return (int) ((noise >>> shift & 0xFFFF) * this.range >>> 16) - this.weight;
   }
 
-  private int random() {
-    return RANDOM.nextInt(this.min, this.max);
+  /**
+   * Selects the noise pattern used for the following frames. Dithering the same frame number with
+   * the same seed always gives the same output.
+   *
+   * @param frame the frame number
+   */
+  public void setFrame(final long frame) {
+    this.frame = frame;
+    this.frameSeed = MurmurHash3.hash(this.seed + frame * GOLDEN_GAMMA);
+  }
+
+  public long getFrame() {
+    return this.frame;
+  }
+
+  public long getSeed() {
+    return this.seed;
+  }
+
+  public int getWeight() {
+    return this.weight;
+  }
+
+  @Override
+  public String getCacheKey() {
+    return "%s:%d:%d".formatted(super.getCacheKey(), this.weight, this.seed);
   }
 }
@@ -25,15 +25,16 @@ package io.github.pulsebeat02.ezmediacore.dither.algorithm.simple;
 
 import static java.util.Objects.requireNonNull;
 
-import com.sun.jna.Pointer;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ForeignDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
 import io.github.pulsebeat02.ezmediacore.util.graphics.DitherUtils;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.lang.foreign.MemorySegment;
 
-public final class SimpleDither extends ForeignDitherAlgorithm {
+public final class SimpleDither extends ForeignDitherAlgorithm
+    implements PositionalDitherAlgorithm {
 
   public SimpleDither(final ColorPalette palette, final boolean useNative) {
     super(palette, useNative);
@@ -44,23 +45,56 @@ public final class SimpleDither extends ForeignDitherAlgorithm {
   }
 
   @Override
-  public byte[] standardMinecraftDither(
-      final int  [] buffer, final int width) {
+  public void standardMinecraftDither(
+      final int[] buffer, final int width, final byte[] output, final int offset) {
+    final int height = buffer.length / width;
+    for (int y = 0; y < height; y++) {
+      final int yIndex = y * width;
+      this.ditherRowIntoMinecraft(buffer, yIndex, 0, y, width, output, offset + yIndex);
+    }
+  }
+
+  @Override
+  public void ditherRowIntoMinecraft(
+      final int[] buffer,
+      final int bufferOffset,
+      final int x,
+      final int y,
+      final int length,
+      final byte[] output,
+      final int outputOffset) {
     final ColorPalette palette = this.getPalette();
-    final int length = buffer.length;
-    final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
+    for (int i = 0; i < length; i++) {
+      final int color = buffer[bufferOffset + i];
+      final int r = (color >> 16) & 0xFF;
+      final int g = (color >> 8) & 0xFF;
+      final int b = (color) & 0xFF;
+      output[outputOffset + i] = DitherUtils.getBestColor(palette, r, g, b);
+    }
+  }
+
+  @Override
+  public void standardMinecraftDither(
+      final MemorySegment buffer,
+      final int width,
+      final int height,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] output,
+      final int offset) {
+    final ColorPalette palette = this.getPalette();
+    final int bytesPerPixel = layout.getBytesPerPixel();
     for (int y = 0; y < height; y++) {
+      final long row = (long) y * stride;
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
-        final int color = buffer[yIndex + x];
+        final int color = layout.getRGB(buffer, row + (long) x * bytesPerPixel);
         final int r = (color >> 16) & 0xFF;
         final int g = (color >> 8) & 0xFF;
         final int b = (color) & 0xFF;
-        data.writeByte(DitherUtils.getBestColor(palette, r, g, b));
+        output[offset + yIndex + x] = DitherUtils.getBestColor(palette, r, g, b);
       }
     }
-    return data.array();
   }
 
   @Override
@@ -81,15 +115,9 @@ public final class SimpleDither extends ForeignDitherAlgorithm {
   }
 
   @Override
-  public byte[] ditherIntoMinecraftNatively(
-      final int[] buffer, final int width) {
-    final ColorPalette palette = this.getPalette();
-    final int[] full = palette.getFullColorMap();
-    final byte[] colors = palette.getColorMap();
+  public void ditherIntoMinecraftNatively(
+      final MemorySegment buffer, final int width, final MemorySegment output) {
     final DitherLibC library = requireNonNull(DitherLibC.INSTANCE);
-    final Pointer pointer = library.simpleDither(full, colors, buffer, width);
-    final byte[] array = pointer.getByteArray(0L, buffer.length);
-    final ByteBuf data = Unpooled.buffer(array.length);
-    return data.array();
+    library.simpleDither(this.getNativePalette(), buffer, width, output);
   }
 }
@@ -24,6 +24,7 @@
 package io.github.pulsebeat02.ezmediacore.dither.palette;
 
 import io.github.pulsebeat02.ezmediacore.dither.load.LoadRed;
+import io.github.pulsebeat02.ezmediacore.natives.NativeColorPalette;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +34,7 @@ public class ColorPalette {
   private final int[] palette;
   private final byte[] colorMap;
   private final int[] fullColorMap;
+  private volatile NativeColorPalette nativePalette;
 
   public ColorPalette(final List<Integer> colors) {
     this.palette = new int[colors.size()];
@@ -83,6 +85,20 @@ public class ColorPalette {
     return this.fullColorMap;
   }
 
+  public NativeColorPalette getNativePalette() {
+    NativeColorPalette result = this.nativePalette;
+    if (result == null) {
+      synchronized (this) {
+        result = this.nativePalette;
+        if (result == null) {
+          result = new NativeColorPalette(this);
+          this.nativePalette = result;
+        }
+      }
+    }
+    return result;
+  }
+
   /** Init. */
   public static void init() {}
 }
@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter implements CounterMXBean {
+
+  static final Counter DISABLED = new Counter(false);
+
+  private final LongAdder count;
+
+  Counter() {
+    this(true);
+  }
+
+  private Counter(final boolean enabled) {
+    this.count = enabled ? new LongAdder() : null;
+  }
+
+  public void increment() {
+    this.add(1);
+  }
+
+  public void add(final long amount) {
+    if (this.count != null) {
+      this.count.add(amount);
+    }
+  }
+
+  public boolean isEnabled() {
+    return this.count != null;
+  }
+
+  @Override
+  public long getCount() {
+    return this.count == null ? 0 : this.count.sum();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of nanosecond durations. Values are counted in log-linear buckets (eight
+ * per power of two), so percentiles are accurate to within about 12% at any scale.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets;
+  private final LongAdder count;
+  private final LongAdder total;
+  private final AtomicLong max;
+
+  public LatencyHistogram() {
+    this.buckets = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.total = new LongAdder();
+    this.max = new AtomicLong();
+  }
+
+  private static int getBucket(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift & SUB_BUCKETS - 1);
+  }
+
+  private static long getBucketValue(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + ((1L << shift) >> 1);
+  }
+
+  public void record(final long nanos) {
+    final long value = Math.max(nanos, 0);
+    this.buckets.incrementAndGet(getBucket(value));
+    this.count.increment();
+    this.total.add(value);
+    this.max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Returns an estimate of the given percentile.
+   *
+   * @param percentile the percentile, between 0 and 1
+   * @return the duration in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentile(final double percentile) {
+    final long count = this.count.sum();
+    if (count == 0) {
+      return 0;
+    }
+    final long target = Math.max(1, (long) Math.ceil(percentile * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += this.buckets.get(i);
+      if (seen >= target) {
+        return Math.min(getBucketValue(i), this.max.get());
+      }
+    }
+    return this.max.get();
+  }
+
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  public long getTotal() {
+    return this.total.sum();
+  }
+
+  public long getMean() {
+    final long count = this.count.sum();
+    return count == 0 ? 0 : this.total.sum() / count;
+  }
+
+  public long getMax() {
+    return this.max.get();
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+/**
+ * Named timers, counters and gauges for the pipeline, grabbers and outputs. The registry returned
+ * by {@link #disabled()} hands out shared no-op metrics, so instrumented code costs a field read
+ * and a branch when metrics are off.
+ */
+public final class MetricRegistry {
+
+  private static final MetricRegistry DISABLED = new MetricRegistry(false);
+
+  private final boolean enabled;
+  private final Map<String, Timer> timers;
+  private final Map<String, Counter> counters;
+  private final Map<String, Gauge> gauges;
+  private final Set<ObjectName> registered;
+
+  private volatile String domain;
+
+  public MetricRegistry() {
+    this(true);
+  }
+
+  private MetricRegistry(final boolean enabled) {
+    this.enabled = enabled;
+    this.timers = new ConcurrentHashMap<>();
+    this.counters = new ConcurrentHashMap<>();
+    this.gauges = new ConcurrentHashMap<>();
+    this.registered = ConcurrentHashMap.newKeySet();
+  }
+
+  public static MetricRegistry disabled() {
+    return DISABLED;
+  }
+
+  public Timer timer(final String name) {
+    if (!this.enabled) {
+      return Timer.DISABLED;
+    }
+    return this.timers.computeIfAbsent(name, key -> this.expose("Timer", key, new Timer()));
+  }
+
+  public Counter counter(final String name) {
+    if (!this.enabled) {
+      return Counter.DISABLED;
+    }
+    return this.counters.computeIfAbsent(name, key -> this.expose("Counter", key, new Counter()));
+  }
+
+  public void gauge(final String name, final LongSupplier supplier) {
+    checkNotNull(supplier, "Gauge supplier cannot be null!");
+    if (this.enabled) {
+      this.gauges.computeIfAbsent(name, key -> this.expose("Gauge", key, new Gauge(supplier)));
+    }
+  }
+
+  /**
+   * Removes every metric whose name starts with {@code prefix} and unregisters its MBean. Holders of
+   * a removed metric can keep using it, but it is no longer reported.
+   *
+   * @param prefix the start of the names to remove
+   */
+  public void removeAll(final String prefix) {
+    checkNotNull(prefix, "Prefix cannot be null!");
+    if (!this.enabled) {
+      return;
+    }
+    this.removeAll("Timer", this.timers, prefix);
+    this.removeAll("Counter", this.counters, prefix);
+    this.removeAll("Gauge", this.gauges, prefix);
+  }
+
+  private void removeAll(final String type, final Map<String, ?> metrics, final String prefix) {
+    metrics.keySet().removeIf(name -> {
+      if (!name.startsWith(prefix)) {
+        return false;
+      }
+      this.conceal(type, name);
+      return true;
+    });
+  }
+
+  /**
+   * Registers every metric, including those created later, as an MBean on the platform server
+   * under {@code domain:type=<Timer|Counter|Gauge>,name=<name>}.
+   *
+   * @param domain the JMX domain
+   */
+  public synchronized void registerMBeans(final String domain) {
+    if (!this.enabled || this.domain != null) {
+      return;
+    }
+    this.domain = checkNotNull(domain, "Domain cannot be null!");
+    this.timers.forEach((name, timer) -> this.expose("Timer", name, timer));
+    this.counters.forEach((name, counter) -> this.expose("Counter", name, counter));
+    this.gauges.forEach((name, gauge) -> this.expose("Gauge", name, gauge));
+  }
+
+  public synchronized void unregisterMBeans() {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (final ObjectName name : this.registered) {
+      try {
+        server.unregisterMBean(name);
+      } catch (final InstanceNotFoundException | MBeanRegistrationException ignored) {
+      }
+    }
+    this.registered.clear();
+    this.domain = null;
+  }
+
+  private <T> T expose(final String type, final String name, final T metric) {
+    final String domain = this.domain;
+    if (domain == null) {
+      return metric;
+    }
+    try {
+      final ObjectName object = getObjectName(domain, type, name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(metric, object);
+      this.registered.add(object);
+    } catch (final InstanceAlreadyExistsException ignored) {
+    } catch (final MalformedObjectNameException
+        | MBeanRegistrationException
+        | NotCompliantMBeanException e) {
+      throw new AssertionError(e);
+    }
+    return metric;
+  }
+
+  private synchronized void conceal(final String type, final String name) {
+    final String domain = this.domain;
+    if (domain == null) {
+      return;
+    }
+    try {
+      final ObjectName object = getObjectName(domain, type, name);
+      if (this.registered.remove(object)) {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(object);
+      }
+    } catch (final InstanceNotFoundException | MBeanRegistrationException ignored) {
+    } catch (final MalformedObjectNameException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static ObjectName getObjectName(final String domain, final String type, final String name)
+      throws MalformedObjectNameException {
+    return new ObjectName("%s:type=%s,name=%s".formatted(domain, type, ObjectName.quote(name)));
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public Map<String, Timer> getTimers() {
+    return Collections.unmodifiableMap(this.timers);
+  }
+
+  public Map<String, Counter> getCounters() {
+    return Collections.unmodifiableMap(this.counters);
+  }
+
+  public Map<String, Gauge> getGauges() {
+    return Collections.unmodifiableMap(this.gauges);
+  }
+}
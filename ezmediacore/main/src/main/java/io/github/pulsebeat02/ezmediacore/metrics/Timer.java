@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long an operation takes and how often it runs. Timers from a disabled registry skip
+ * both the clock reads and the recording.
+ */
+public final class Timer implements TimerMXBean {
+
+  static final Timer DISABLED = new Timer(false);
+
+  private final boolean enabled;
+  private final LatencyHistogram histogram;
+  private final AtomicLong first;
+
+  Timer() {
+    this(true);
+  }
+
+  private Timer(final boolean enabled) {
+    this.enabled = enabled;
+    this.histogram = enabled ? new LatencyHistogram() : null;
+    this.first = new AtomicLong();
+  }
+
+  /**
+   * Returns the start time to pass to {@link #stop(long)}.
+   *
+   * @return the current {@link System#nanoTime()}, or 0 if the timer is disabled
+   */
+  public long start() {
+    return this.enabled ? System.nanoTime() : 0;
+  }
+
+  public void stop(final long start) {
+    if (this.enabled) {
+      this.record(System.nanoTime() - start);
+    }
+  }
+
+  public void record(final long nanos) {
+    if (!this.enabled) {
+      return;
+    }
+    if (this.first.get() == 0) {
+      this.first.compareAndSet(0, System.nanoTime() - nanos);
+    }
+    this.histogram.record(nanos);
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public LatencyHistogram getHistogram() {
+    return this.histogram;
+  }
+
+  @Override
+  public long getCount() {
+    return this.enabled ? this.histogram.getCount() : 0;
+  }
+
+  @Override
+  public long getP50Nanos() {
+    return this.enabled ? this.histogram.getPercentile(0.5) : 0;
+  }
+
+  @Override
+  public long getP99Nanos() {
+    return this.enabled ? this.histogram.getPercentile(0.99) : 0;
+  }
+
+  @Override
+  public long getMeanNanos() {
+    return this.enabled ? this.histogram.getMean() : 0;
+  }
+
+  @Override
+  public long getMaxNanos() {
+    return this.enabled ? this.histogram.getMax() : 0;
+  }
+
+  /**
+   * Returns the average number of recordings per second since the first one.
+   *
+   * @return the throughput
+   */
+  @Override
+  public double getThroughput() {
+    final long first = this.first.get();
+    if (!this.enabled || first == 0) {
+      return 0.0;
+    }
+    final long elapsed = System.nanoTime() - first;
+    return elapsed <= 0 ? 0.0 : this.histogram.getCount() * 1_000_000_000.0 / elapsed;
+  }
+}
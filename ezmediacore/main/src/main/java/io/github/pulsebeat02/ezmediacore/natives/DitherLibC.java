@@ -23,39 +23,158 @@
  */
 package io.github.pulsebeat02.ezmediacore.natives;
 
-import com.sun.jna.Library;
-import com.sun.jna.Native;
-import com.sun.jna.Pointer;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
 
-public interface DitherLibC extends Library {
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
 
-  DitherLibC INSTANCE = getInstance0();
+/**
+ * Foreign function binding for the native dithering library. Palettes are passed as long-lived
+ * {@link NativeColorPalette} segments, frames are passed as caller-owned segments of packed ARGB
+ * integers, and results are written into a caller-owned output segment of one byte per pixel.
+ * Buffers returned by the library are released immediately after their contents are transferred.
+ */
+public final class DitherLibC {
+
+  private static final String LIBRARY_NAME = "dither";
+  private static final String FREE_SYMBOL = "free";
+
+  private static final FunctionDescriptor DITHER_DESCRIPTOR =
+      FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT);
+  private static final FunctionDescriptor RANDOM_DITHER_DESCRIPTOR =
+      FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT);
+  private static final FunctionDescriptor FREE_DESCRIPTOR = FunctionDescriptor.ofVoid(ADDRESS);
+
+  public static final DitherLibC INSTANCE = getInstance0();
+
+  private final MethodHandle filterLiteDither;
+  private final MethodHandle floydSteinbergDither;
+  private final MethodHandle randomDither;
+  private final MethodHandle simpleDither;
+  private final MethodHandle free;
+
+  private DitherLibC(final SymbolLookup lookup) {
+    final Linker linker = Linker.nativeLinker();
+    final SymbolLookup standard = linker.defaultLookup();
+    this.filterLiteDither = downcall(linker, lookup, "filterLiteDither", DITHER_DESCRIPTOR);
+    this.floydSteinbergDither = downcall(linker, lookup, "floydSteinbergDither", DITHER_DESCRIPTOR);
+    this.randomDither = downcall(linker, lookup, "randomDither", RANDOM_DITHER_DESCRIPTOR);
+    this.simpleDither = downcall(linker, lookup, "simpleDither", DITHER_DESCRIPTOR);
+    this.free = downcall(linker, standard, FREE_SYMBOL, FREE_DESCRIPTOR);
+  }
 
   private static DitherLibC getInstance0() {
     try {
-      return Native.load("dither", DitherLibC.class);
-    } catch (final UnsatisfiedLinkError ignored) {
+      return new DitherLibC(findLibrary());
+    } catch (final UnsatisfiedLinkError | IllegalArgumentException ignored) {
     }
     return null;
   }
 
-  static boolean isSupported() {
+  private static SymbolLookup findLibrary() {
+    final SymbolLookup loader = SymbolLookup.loaderLookup();
+    if (loader.find("floydSteinbergDither").isPresent()) {
+      return loader;
+    }
+    final String name = System.mapLibraryName(LIBRARY_NAME);
+    return SymbolLookup.libraryLookup(name, Arena.global());
+  }
+
+  private static MethodHandle downcall(
+      final Linker linker,
+      final SymbolLookup lookup,
+      final String name,
+      final FunctionDescriptor descriptor) {
+    final MemorySegment symbol =
+        lookup.find(name).orElseThrow(() -> new UnsatisfiedLinkError("Missing symbol " + name));
+    return linker.downcallHandle(symbol, descriptor);
+  }
+
+  public static boolean isSupported() {
     return INSTANCE != null;
   }
-  
-  Pointer filterLiteDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
 
-  Pointer floydSteinbergDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
+  public void filterLiteDither(
+      final NativeColorPalette palette,
+      final MemorySegment buffer,
+      final int width,
+      final MemorySegment output) {
+    final MemorySegment result = this.invoke(this.filterLiteDither, palette, buffer, width);
+    this.transfer(result, buffer, output);
+  }
 
-  Pointer randomDither(
-      final int[] colors,
-      final byte[] fullColors,
-      final int[] buffer,
+  public void floydSteinbergDither(
+      final NativeColorPalette palette,
+      final MemorySegment buffer,
       final int width,
-      final int weight);
+      final MemorySegment output) {
+    final MemorySegment result = this.invoke(this.floydSteinbergDither, palette, buffer, width);
+    this.transfer(result, buffer, output);
+  }
 
-  Pointer simpleDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
+  public void randomDither(
+      final NativeColorPalette palette,
+      final MemorySegment buffer,
+      final int width,
+      final int weight,
+      final MemorySegment output) {
+    final MemorySegment result;
+    try {
+      result =
+          (MemorySegment)
+              this.randomDither.invokeExact(
+                  palette.getFullColorMap(), palette.getColorMap(), buffer, width, weight);
+    } catch (final Throwable e) {
+      throw new AssertionError(e);
+    }
+    this.transfer(result, buffer, output);
+  }
+
+  public void simpleDither(
+      final NativeColorPalette palette,
+      final MemorySegment buffer,
+      final int width,
+      final MemorySegment output) {
+    final MemorySegment result = this.invoke(this.simpleDither, palette, buffer, width);
+    this.transfer(result, buffer, output);
+  }
+
+  private MemorySegment invoke(
+      final MethodHandle handle,
+      final NativeColorPalette palette,
+      final MemorySegment buffer,
+      final int width) {
+    try {
+      return (MemorySegment)
+          handle.invokeExact(palette.getFullColorMap(), palette.getColorMap(), buffer, width);
+    } catch (final Throwable e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private void transfer(
+      final MemorySegment result, final MemorySegment buffer, final MemorySegment output) {
+    if (result.equals(MemorySegment.NULL)) {
+      throw new IllegalStateException("Native dithering library returned a null buffer!");
+    }
+    try {
+      final long length = buffer.byteSize() / Integer.BYTES;
+      MemorySegment.copy(result.reinterpret(length), 0L, output, 0L, length);
+    } finally {
+      this.release(result);
+    }
+  }
+
+  private void release(final MemorySegment result) {
+    try {
+      this.free.invokeExact(result);
+    } catch (final Throwable e) {
+      throw new AssertionError(e);
+    }
+  }
 }
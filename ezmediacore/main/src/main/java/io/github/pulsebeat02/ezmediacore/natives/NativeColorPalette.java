@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.natives;
+
+import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap copy of the lookup tables of a {@link ColorPalette}. The tables are uploaded once and
+ * handed to every native dithering call, so they never cross the boundary per frame. The memory is
+ * owned by an automatic arena and is freed once the palette becomes unreachable.
+ */
+public final class NativeColorPalette {
+
+  private final MemorySegment fullColorMap;
+  private final MemorySegment colorMap;
+
+  public NativeColorPalette(final ColorPalette palette) {
+    this(palette, Arena.ofAuto());
+  }
+
+  public NativeColorPalette(final ColorPalette palette, final Arena arena) {
+    this.fullColorMap = arena.allocateFrom(ValueLayout.JAVA_INT, palette.getFullColorMap());
+    this.colorMap = arena.allocateFrom(ValueLayout.JAVA_BYTE, palette.getColorMap());
+  }
+
+  public MemorySegment getFullColorMap() {
+    return this.fullColorMap;
+  }
+
+  public MemorySegment getColorMap() {
+    return this.colorMap;
+  }
+}
@@ -1,39 +1,405 @@
 package io.github.pulsebeat02.ezmediacore.pipeline;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.metrics.Counter;
+import io.github.pulsebeat02.ezmediacore.metrics.MetricRegistry;
+import io.github.pulsebeat02.ezmediacore.metrics.PipelineStepEvent;
+import io.github.pulsebeat02.ezmediacore.metrics.Timer;
+import io.github.pulsebeat02.ezmediacore.pipeline.PipelineCompiler.PipelineChain;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.output.AsyncFrameOutput;
 import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
 import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering.AdaptiveDitherPipelineStep;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering.DitherConfiguration;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering.DitherPipelineStep;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering.DownscaleDitherPipelineStep;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
 
 public final class BasicPipelineResult implements FramePipelineResult {
 
+  private static final AtomicInteger PIPELINES = new AtomicInteger();
+
   private final List<FramePipelineProcedure> steps;
   private final List<FrameOutputSource> output;
+  private final List<FramePipelineStage> stages;
+  private final FramePacketPool pool;
+  private final int id;
+  private final String metricPrefix;
+  private final PipelineChain[] chains;
+  private final AtomicLong lateFrames;
+  private final AtomicLong skippedFrames;
+
+  private volatile MetricRegistry metrics;
+  private volatile Map<FramePipelineStep<?, ?>, Timer> stepTimers;
+  private volatile Timer[] outputTimers;
+  private volatile Counter[] outputBytes;
+  private volatile boolean compiled;
 
   BasicPipelineResult(final List<FramePipelineProcedure> steps,
                       final List<FrameOutputSource> output) {
     this.steps = steps;
     this.output = output;
+    this.stages = new ArrayList<>();
+    this.pool = new FramePacketPool();
+    this.id = PIPELINES.incrementAndGet();
+    this.metricPrefix = "pipeline.%d.".formatted(this.id);
+    this.chains = new PipelineChain[steps.size()];
+    this.compiled = true;
+    this.lateFrames = new AtomicLong();
+    this.skippedFrames = new AtomicLong();
+    this.metrics = MetricRegistry.disabled();
+    for (final FramePipelineProcedure procedure : steps) {
+      if (procedure instanceof final FramePipelineStage stage) {
+        this.stages.add(stage);
+      }
+    }
+  }
+
+  private Object runProcedure(final int index, final Object input) {
+    final List<FramePipelineStep<Object, Object>> steps = this.steps.get(index).getSteps();
+    if (!this.compiled || this.stepTimers != null || index >= this.chains.length) {
+      return this.runSteps(steps, input);
+    }
+    PipelineChain chain = this.chains[index];
+    if (chain == null || !chain.matches(steps)) {
+      chain = PipelineCompiler.compile(steps, this.id);
+      this.chains[index] = chain;
+    }
+    return chain.run(input);
+  }
+
+  private Object runSteps(final List<FramePipelineStep<Object, Object>> steps, final Object input) {
+    final Map<FramePipelineStep<?, ?>, Timer> timers = this.stepTimers;
+    Object current = input;
+    for (final FramePipelineStep<Object, Object> step : steps) {
+      final Timer timer = timers == null ? null : timers.get(step);
+      final PipelineStepEvent event = new PipelineStepEvent();
+      final long start = timer == null ? 0 : timer.start();
+      event.begin();
+      final Object next = step.process(current);
+      event.end();
+      if (timer != null) {
+        timer.stop(start);
+      }
+      if (event.shouldCommit()) {
+        commitStepEvent(event, this.id, step, current);
+      }
+      if (next != current && current instanceof final FramePacket packet) {
+        packet.release();
+      }
+      if (next == null) {
+        return null;
+      }
+      current = next;
+    }
+    return current;
+  }
+
+  static void commitStepEvent(final PipelineStepEvent event, final int pipeline, final FramePipelineStep<?, ?> step, final Object input) {
+    event.pipeline = pipeline;
+    event.step = step.getClass().getSimpleName();
+    if (input instanceof final FramePacket packet) {
+      event.width = packet.getImageWidth();
+      event.height = packet.getImageHeight();
+    }
+    event.commit();
   }
 
   @Override
   public void executePipeline(final Object input) {
+    if (!this.stages.isEmpty()) {
+      this.startStages();
+    }
+    if (this.dropIfUnwanted(input)) {
+      return;
+    }
+    this.forward(0, input);
+  }
+
+  /**
+   * Returns whether at least one output would accept a frame now. A pipeline without outputs
+   * always has demand, as its steps may be the ones consuming the frames.
+   */
+  @Override
+  public boolean hasDemand() {
+    if (this.output.isEmpty()) {
+      return true;
+    }
+    for (final FrameOutputSource output : this.output) {
+      if (output.isAcceptingFrames()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Runs the procedures from {@code index} on, then the outputs. The frame is dropped when a step
+   * returns {@code null} or when its deadline has passed before the next procedure or the outputs
+   * start.
+   */
+  private void forward(final int index, final Object input) {
     Object current = input;
-    for (final FramePipelineProcedure procedure : this.steps) {
-      final List<FramePipelineStep<Object, Object>> steps = procedure.getSteps();
-      for (final FramePipelineStep<Object, Object> step : steps) {
-        current = step.process(current);
+    for (int i = index; i < this.steps.size(); i++) {
+      if (this.dropIfLate(current)) {
+        return;
+      }
+      final FramePipelineProcedure procedure = this.steps.get(i);
+      if (procedure instanceof final FramePipelineStage stage) {
+        stage.submit(detach(current));
+        return;
+      }
+      current = this.runProcedure(i, current);
+      if (current == null) {
+        return;
       }
     }
-    for (final FrameOutputSource output : this.output) {
-      output.output(current);
+    if (this.dropIfLate(current)) {
+      return;
+    }
+    try {
+      this.output(current);
+    } finally {
+      if (current instanceof final FramePacket packet) {
+        packet.release();
+      }
+    }
+  }
+
+  private void runStage(final int index, final Object input) {
+    if (this.dropIfLate(input) || this.dropIfUnwanted(input)) {
+      return;
+    }
+    final Object current = this.runProcedure(index, input);
+    if (current != null) {
+      this.forward(index + 1, current);
+    }
+  }
+
+  private boolean dropIfLate(final Object input) {
+    if (input instanceof final FramePacket packet && packet.isLate()) {
+      this.lateFrames.incrementAndGet();
+      packet.release();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean dropIfUnwanted(final Object input) {
+    if (this.hasDemand()) {
+      return false;
+    }
+    this.skippedFrames.incrementAndGet();
+    if (input instanceof final FramePacket packet) {
+      packet.release();
+    }
+    return true;
+  }
+
+  private void output(final Object input) {
+    final Timer[] timers = this.outputTimers;
+    final Counter[] bytes = this.outputBytes;
+    if (timers == null) {
+      for (final FrameOutputSource output : this.output) {
+        output.output(input);
+      }
+      return;
+    }
+    final long size = getPacketBytes(input);
+    for (int i = 0; i < this.output.size(); i++) {
+      final long start = timers[i].start();
+      this.output.get(i).output(input);
+      timers[i].stop(start);
+      bytes[i].add(size);
+    }
+  }
+
+  private static void registerStepGauges(
+      final MetricRegistry metrics, final String name, final FramePipelineStep<?, ?> step) {
+    if (step instanceof final AdaptiveDitherPipelineStep adaptive) {
+      metrics.gauge(name + ".level", adaptive::getCurrentLevel);
+      metrics.gauge(name + ".downgrades", adaptive::getDowngrades);
+      metrics.gauge(name + ".upgrades", adaptive::getUpgrades);
+      registerCoherenceGauge(metrics, name, adaptive.getConfiguration(), adaptive::getUnchangedRatio);
+    } else if (step instanceof final DitherPipelineStep<?> dither) {
+      registerCoherenceGauge(metrics, name, dither.getConfiguration(), dither::getUnchangedRatio);
+    } else if (step instanceof final DownscaleDitherPipelineStep<?> downscale) {
+      registerCoherenceGauge(metrics, name, downscale.getConfiguration(), downscale::getUnchangedRatio);
+    }
+  }
+
+  private static void registerCoherenceGauge(
+      final MetricRegistry metrics,
+      final String name,
+      final DitherConfiguration configuration,
+      final DoubleSupplier ratio) {
+    if (configuration.isTemporalCoherence()) {
+      metrics.gauge(name + ".unchangedPercent", () -> Math.round(ratio.getAsDouble() * 100));
+    }
+  }
+
+  private static long getPacketBytes(final Object input) {
+    if (!(input instanceof final FramePacket packet)) {
+      return 0;
+    }
+    final byte[] audio = packet.getAudioSamples();
+    final long video = input instanceof final DitheredPacket dithered
+        ? dithered.getMapDitheredSamples().length
+        : 4L * packet.getImageWidth() * packet.getImageHeight();
+    return video + (audio == null ? 0 : audio.length);
+  }
+
+  private static Object detach(final Object input) {
+    if (!(input instanceof final FramePacket packet)) {
+      return input;
+    }
+    final FramePacket detached = packet.detach();
+    if (detached != packet) {
+      packet.release();
+    }
+    return detached;
+  }
+
+  private void startStages() {
+    for (int i = 0; i < this.steps.size(); i++) {
+      if (this.steps.get(i) instanceof final FramePipelineStage stage && !stage.isRunning()) {
+        final int index = i;
+        stage.start("EzMediaCore Pipeline Stage " + i, input -> this.runStage(index, input));
+      }
     }
   }
 
   @Override
   public void releasePipelines() {
+    for (final FramePipelineStage stage : this.stages) {
+      stage.stop();
+    }
     for (final FrameOutputSource output : this.output) {
       output.release();
     }
+    this.metrics.removeAll(this.metricPrefix);
+  }
+
+  /**
+   * Records step and output latency, bytes emitted, stage queue depth and dropped frames into the
+   * given registry. Every name starts with {@code pipeline.<id>.}, so pipelines sharing a registry
+   * do not share metrics; steps and outputs are named by their position in the pipeline and their
+   * class. Dither steps also report the adaptive level, upgrades and downgrades, and the percentage
+   * of pixels temporal coherence kept. The metrics are removed from the registry when the pipeline
+   * is released.
+   *
+   * @param metrics the registry, or {@link MetricRegistry#disabled()} to stop recording
+   */
+  public void setMetrics(final MetricRegistry metrics) {
+    checkNotNull(metrics, "Metric registry cannot be null!");
+    this.metrics.removeAll(this.metricPrefix);
+    this.metrics = metrics;
+    if (!metrics.isEnabled()) {
+      this.stepTimers = null;
+      this.outputTimers = null;
+      this.outputBytes = null;
+      return;
+    }
+    final Map<FramePipelineStep<?, ?>, Timer> timers = new IdentityHashMap<>();
+    for (int i = 0; i < this.steps.size(); i++) {
+      final FramePipelineProcedure procedure = this.steps.get(i);
+      final List<FramePipelineStep<Object, Object>> list = procedure.getSteps();
+      for (int j = 0; j < list.size(); j++) {
+        final FramePipelineStep<Object, Object> step = list.get(j);
+        final String name = this.metricPrefix + "step.%d.%d.%s".formatted(i, j, step.getClass().getSimpleName());
+        timers.put(step, metrics.timer(name));
+        registerStepGauges(metrics, name, step);
+      }
+      if (procedure instanceof final FramePipelineStage stage) {
+        metrics.gauge(this.metricPrefix + "stage.%d.queueDepth".formatted(i), stage::getQueueDepth);
+        metrics.gauge(this.metricPrefix + "stage.%d.dropped".formatted(i), stage::getDroppedFrames);
+      }
+    }
+    final Timer[] outputTimers = new Timer[this.output.size()];
+    final Counter[] outputBytes = new Counter[this.output.size()];
+    for (int i = 0; i < outputTimers.length; i++) {
+      final FrameOutputSource output = this.output.get(i);
+      final Object target = output instanceof final AsyncFrameOutput<?> async ? async.getDelegate() : output;
+      final String name = this.metricPrefix + "output.%d.%s".formatted(i, target.getClass().getSimpleName());
+      outputTimers[i] = metrics.timer(name);
+      outputBytes[i] = metrics.counter(name + ".bytes");
+      if (output instanceof final AsyncFrameOutput<?> async) {
+        metrics.gauge(name + ".dropped", async::getDroppedFrames);
+      }
+    }
+    metrics.gauge(this.metricPrefix + "frames.late", this.lateFrames::get);
+    metrics.gauge(this.metricPrefix + "frames.skipped", this.skippedFrames::get);
+    metrics.gauge(this.metricPrefix + "packets.outstanding", this.pool::getOutstandingPackets);
+    metrics.gauge(this.metricPrefix + "packets.leaked", this.pool::getLeakedPackets);
+    this.stepTimers = timers;
+    this.outputTimers = outputTimers;
+    this.outputBytes = outputBytes;
+  }
+
+  /**
+   * Chooses between running each group of steps through a chain compiled into one hidden class per
+   * step (the default) or through a plain loop. Steps are always run through the loop while step
+   * timers are recorded.
+   *
+   * @param compiled whether to run compiled chains
+   */
+  public void setCompiled(final boolean compiled) {
+    this.compiled = compiled;
+  }
+
+  public boolean isCompiled() {
+    return this.compiled;
+  }
+
+  @Override
+  public MetricRegistry getMetrics() {
+    return this.metrics;
+  }
+
+  @Override
+  public FramePacketPool getPacketPool() {
+    return this.pool;
+  }
+
+  /**
+   * Returns the number that identifies this pipeline in flight recorder events.
+   *
+   * @return the pipeline id
+   */
+  public int getId() {
+    return this.id;
+  }
+
+  /**
+   * Returns how many frames were dropped because their presentation deadline had passed.
+   *
+   * @return the number of late frames
+   */
+  public long getLateFrames() {
+    return this.lateFrames.get();
+  }
+
+  /**
+   * Returns how many frames were skipped before any step ran because no output would accept them.
+   *
+   * @return the number of skipped frames
+   */
+  public long getSkippedFrames() {
+    return this.skippedFrames.get();
+  }
+
+  public List<FramePipelineStage> getStages() {
+    return List.copyOf(this.stages);
   }
 }
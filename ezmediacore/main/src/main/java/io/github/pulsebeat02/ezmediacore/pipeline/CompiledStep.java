@@ -0,0 +1,46 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+import io.github.pulsebeat02.ezmediacore.metrics.PipelineStepEvent;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Template for the hidden classes defined by {@link PipelineCompiler}. Every step gets its own copy
+ * of this class with the step and the next link as static constants, so each call site sees a
+ * single receiver type and the JIT can inline the whole chain. It is never loaded directly.
+ */
+final class CompiledStep implements PipelineLink {
+
+  private static final FramePipelineStep<Object, Object> STEP;
+  private static final PipelineLink NEXT;
+  private static final int PIPELINE;
+
+  static {
+    try {
+      final List<?> data = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, List.class);
+      STEP = (FramePipelineStep<Object, Object>) data.get(0);
+      NEXT = (PipelineLink) data.get(1);
+      PIPELINE = (Integer) data.get(2);
+    } catch (final IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public Object run(final Object input) {
+    final PipelineStepEvent event = new PipelineStepEvent();
+    event.begin();
+    final Object next = STEP.process(input);
+    event.end();
+    if (event.shouldCommit()) {
+      BasicPipelineResult.commitStepEvent(event, PIPELINE, STEP, input);
+    }
+    if (next != input && input instanceof final FramePacket packet) {
+      packet.release();
+    }
+    return next == null ? null : NEXT.run(next);
+  }
+}
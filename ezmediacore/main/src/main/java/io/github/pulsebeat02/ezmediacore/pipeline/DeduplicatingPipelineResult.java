@@ -0,0 +1,246 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.metrics.MetricRegistry;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.NativeFramePacket;
+import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops decoded frames that look the same as the last frame passed on, before they are converted,
+ * dithered and sent. Static scenes, slideshows and paused streams then cost a comparison per frame
+ * instead of a full pipeline run.
+ *
+ * <p>A frame is compared on a grid of every {@code sampleStep}th pixel in both directions and counts
+ * as a duplicate when every sampled channel is within {@code tolerance} of the last frame passed
+ * on. Comparing against the last frame passed on, rather than the previous one, keeps a slow fade
+ * from being dropped forever. Frames that carry audio are always passed on.
+ *
+ * <p>A frame passed on may still be dropped further down: it can be late, overflow a stage queue,
+ * or arrive while one of several outputs is waiting out its delay. So that such an output does not
+ * keep an older picture for the rest of a static scene, a duplicate is passed on anyway once
+ * {@code refreshInterval} has gone by since the last frame passed on.
+ */
+public final class DeduplicatingPipelineResult implements FramePipelineResult<Object> {
+
+  public static final int DEFAULT_SAMPLE_STEP = 4;
+  public static final int DEFAULT_TOLERANCE = 4;
+  public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+  private final FramePipelineResult delegate;
+  private final int sampleStep;
+  private final int tolerance;
+  private final long refreshInterval;
+  private final AtomicLong duplicates;
+
+  private int[] reference;
+  private int[] samples;
+  private int width;
+  private int height;
+  private long forwarded;
+
+  public DeduplicatingPipelineResult(final FramePipelineResult delegate) {
+    this(delegate, DEFAULT_SAMPLE_STEP, DEFAULT_TOLERANCE);
+  }
+
+  /**
+   * Creates a filter in front of a pipeline.
+   *
+   * @param delegate the pipeline that receives the frames that are not duplicates
+   * @param sampleStep the distance between two compared pixels; 1 compares every pixel
+   * @param tolerance the largest difference of a color channel, from 0 to 255, that still counts
+   *     as the same color; 0 only drops exact duplicates
+   */
+  public DeduplicatingPipelineResult(
+      final FramePipelineResult delegate, final int sampleStep, final int tolerance) {
+    this(delegate, sampleStep, tolerance, DEFAULT_REFRESH_INTERVAL);
+  }
+
+  /**
+   * Creates a filter in front of a pipeline.
+   *
+   * @param delegate the pipeline that receives the frames that are not duplicates
+   * @param sampleStep the distance between two compared pixels; 1 compares every pixel
+   * @param tolerance the largest difference of a color channel, from 0 to 255, that still counts
+   *     as the same color; 0 only drops exact duplicates
+   * @param refreshInterval how long duplicates may be dropped in a row before one is passed on
+   */
+  public DeduplicatingPipelineResult(
+      final FramePipelineResult delegate,
+      final int sampleStep,
+      final int tolerance,
+      final Duration refreshInterval) {
+    checkArgument(sampleStep > 0, "Sample step must be positive!");
+    checkArgument(tolerance >= 0 && tolerance <= 255, "Tolerance must be between 0 and 255!");
+    checkArgument(!refreshInterval.isNegative() && !refreshInterval.isZero(), "Refresh interval must be positive!");
+    this.delegate = checkNotNull(delegate, "Pipeline cannot be null!");
+    this.sampleStep = sampleStep;
+    this.tolerance = tolerance;
+    this.refreshInterval = refreshInterval.toNanos();
+    this.duplicates = new AtomicLong();
+  }
+
+  public static DeduplicatingPipelineResult exact(final FramePipelineResult delegate) {
+    return new DeduplicatingPipelineResult(delegate, 1, 0);
+  }
+
+  @Override
+  public void executePipeline(final Object input) {
+    // a frame nobody takes must not become the reference, or the screen keeps an older picture
+    if (input instanceof final FramePacket packet
+        && this.delegate.hasDemand()
+        && this.isDuplicate(packet)) {
+      this.duplicates.incrementAndGet();
+      this.delegate.getMetrics().counter("pipeline.frames.duplicate").increment();
+      packet.release();
+      return;
+    }
+    this.delegate.executePipeline(input);
+  }
+
+  private synchronized boolean isDuplicate(final FramePacket packet) {
+    final long now = System.nanoTime();
+    if (this.matchesReference(packet) && now - this.forwarded < this.refreshInterval) {
+      return true;
+    }
+    this.forwarded = now;
+    return false;
+  }
+
+  private boolean matchesReference(final FramePacket packet) {
+    final byte[] audio = packet.getAudioSamples();
+    if (audio != null && audio.length > 0) {
+      return false;
+    }
+    final int width = packet.getImageWidth();
+    final int height = packet.getImageHeight();
+    final int columns = (width + this.sampleStep - 1) / this.sampleStep;
+    final int rows = (height + this.sampleStep - 1) / this.sampleStep;
+    final int length = columns * rows;
+    if (this.samples == null || this.samples.length != length) {
+      this.samples = new int[length];
+    }
+    if (!this.sample(packet, width, height)) {
+      return false;
+    }
+    final boolean duplicate = this.reference != null
+        && this.width == width
+        && this.height == height
+        && this.matches(this.reference, this.samples);
+    if (!duplicate) {
+      final int[] previous = this.reference;
+      this.reference = this.samples;
+      this.samples = previous != null && previous.length == length ? previous : null;
+      this.width = width;
+      this.height = height;
+    }
+    return duplicate;
+  }
+
+  private boolean sample(final FramePacket packet, final int width, final int height) {
+    final int step = this.sampleStep;
+    final int[] samples = this.samples;
+    if (packet instanceof final NativeFramePacket frame) {
+      final MemorySegment pixels = frame.getPixelSegment();
+      if (pixels == null) {
+        return false;
+      }
+      final PixelLayout layout = frame.getPixelLayout();
+      final long stride = frame.getStride();
+      final int bytesPerPixel = layout.getBytesPerPixel();
+      int index = 0;
+      for (int y = 0; y < height; y += step) {
+        final long row = y * stride;
+        for (int x = 0; x < width; x += step) {
+          samples[index++] = layout.getRGB(pixels, row + (long) x * bytesPerPixel);
+        }
+      }
+      return true;
+    }
+    final int[] rgb = packet.getRGBSamples();
+    if (rgb == null) {
+      return false;
+    }
+    if (step == 1) {
+      System.arraycopy(rgb, 0, samples, 0, samples.length);
+      return true;
+    }
+    int index = 0;
+    for (int y = 0; y < height; y += step) {
+      final int row = y * width;
+      for (int x = 0; x < width; x += step) {
+        samples[index++] = rgb[row + x];
+      }
+    }
+    return true;
+  }
+
+  private boolean matches(final int[] reference, final int[] samples) {
+    int index = Arrays.mismatch(reference, samples);
+    if (index < 0) {
+      return true;
+    }
+    final int tolerance = this.tolerance;
+    if (tolerance == 0) {
+      return false;
+    }
+    for (; index < samples.length; index++) {
+      final int a = reference[index];
+      final int b = samples[index];
+      if (a != b
+          && (Math.abs((a >> 16 & 0xFF) - (b >> 16 & 0xFF)) > tolerance
+              || Math.abs((a >> 8 & 0xFF) - (b >> 8 & 0xFF)) > tolerance
+              || Math.abs((a & 0xFF) - (b & 0xFF)) > tolerance)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void releasePipelines() {
+    synchronized (this) {
+      this.reference = null;
+    }
+    this.delegate.releasePipelines();
+  }
+
+  @Override
+  public boolean hasDemand() {
+    return this.delegate.hasDemand();
+  }
+
+  @Override
+  public FramePacketPool getPacketPool() {
+    return this.delegate.getPacketPool();
+  }
+
+  @Override
+  public MetricRegistry getMetrics() {
+    return this.delegate.getMetrics();
+  }
+
+  /**
+   * Returns how many frames were dropped as duplicates.
+   *
+   * @return the number of duplicate frames
+   */
+  public long getDuplicateFrames() {
+    return this.duplicates.get();
+  }
+
+  public Duration getRefreshInterval() {
+    return Duration.ofNanos(this.refreshInterval);
+  }
+
+  public FramePipelineResult getDelegate() {
+    return this.delegate;
+  }
+}
@@ -1,5 +1,6 @@
 package io.github.pulsebeat02.ezmediacore.pipeline;
 
+import io.github.pulsebeat02.ezmediacore.pipeline.output.AsyncFrameOutput;
 import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
 import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
 
@@ -16,7 +17,9 @@ public final class FramePipeline<I, O> {
   FramePipeline(final Class<I> source,
                 final List<FramePipelineProcedure> steps) {
     this.steps = steps;
-    this.steps.add(new FramePipelineStart());
+    if (this.steps.isEmpty()) {
+      this.steps.add(new FramePipelineStart());
+    }
     this.source = source;
   }
 
@@ -34,8 +37,39 @@ public final class FramePipeline<I, O> {
     return new FramePipeline<>(this.source, this.steps);
   }
 
+  /**
+   * Runs every following step, and the outputs if no further stage is added, on a dedicated worker
+   * fed through a queue of {@link FramePipelineStage#DEFAULT_CAPACITY} frames. The caller waits
+   * while the queue is full.
+   *
+   * @return the pipeline
+   */
+  public FramePipeline<I, O> thenStage() {
+    return this.thenStage(FramePipelineStage.DEFAULT_CAPACITY, QueuePolicy.BLOCK);
+  }
+
+  public FramePipeline<I, O> thenStage(final int capacity, final QueuePolicy policy) {
+    this.steps.add(new FramePipelineStage(capacity, policy));
+    return new FramePipeline<>(this.source, this.steps);
+  }
+
   public BasicPipelineResult thenFinally(final FrameOutputSource<O>... output) {
     final List<FrameOutputSource> list = Arrays.asList(output);
     return new BasicPipelineResult(this.steps, list);
   }
+
+  /**
+   * Like {@link #thenFinally(FrameOutputSource[])}, but wraps every output in an {@link
+   * AsyncFrameOutput} so that each one runs on its own virtual thread and only ever sees the newest
+   * frame.
+   *
+   * @param output the outputs
+   * @return the result
+   */
+  public BasicPipelineResult thenFinallyAsync(final FrameOutputSource<O>... output) {
+    final List<FrameOutputSource> list = Arrays.stream(output)
+            .map(AsyncFrameOutput::of)
+            .collect(Collectors.toList());
+    return new BasicPipelineResult(this.steps, list);
+  }
 }
@@ -1,6 +1,33 @@
 package io.github.pulsebeat02.ezmediacore.pipeline;
 
+import io.github.pulsebeat02.ezmediacore.metrics.MetricRegistry;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+
 public interface FramePipelineResult<I> {
   void executePipeline(final I input);
   void releasePipelines();
+
+  /**
+   * Returns the pool grabbers should take packet buffers from. Packets passed to {@link
+   * #executePipeline(Object)} hand their reference over to the pipeline.
+   *
+   * @return the packet pool
+   */
+  default FramePacketPool getPacketPool() {
+    return FramePacketPool.unpooled();
+  }
+
+  /**
+   * Returns whether any output would display a frame passed in now. Grabbers check this before
+   * converting a decoded frame and skip the frame when nothing downstream wants it.
+   *
+   * @return whether the pipeline wants the next frame
+   */
+  default boolean hasDemand() {
+    return true;
+  }
+
+  default MetricRegistry getMetrics() {
+    return MetricRegistry.disabled();
+  }
 }
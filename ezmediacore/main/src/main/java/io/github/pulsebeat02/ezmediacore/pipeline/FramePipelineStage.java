@@ -0,0 +1,162 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A group of steps that runs on its own worker thread. Frames reach the worker through a bounded
+ * queue, so the stage before it can move on to the next frame straight away.
+ */
+public final class FramePipelineStage implements FramePipelineProcedure {
+
+  public static final int DEFAULT_CAPACITY = 2;
+
+  private static final long JOIN_TIMEOUT_MILLIS = 1000;
+
+  private final List<FramePipelineStep<Object, Object>> steps;
+  private final int capacity;
+  private final QueuePolicy policy;
+  private final AtomicLong dropped;
+
+  private volatile BlockingQueue<Object> queue;
+  private volatile Thread worker;
+
+  public FramePipelineStage(final int capacity, final QueuePolicy policy) {
+    checkArgument(capacity > 0, "Queue capacity must be positive!");
+    this.steps = new ArrayList<>();
+    this.capacity = capacity;
+    this.policy = checkNotNull(policy, "Queue policy cannot be null!");
+    this.dropped = new AtomicLong();
+  }
+
+  synchronized void start(final String name, final Consumer<Object> handler) {
+    if (this.worker != null) {
+      return;
+    }
+    final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(this.capacity);
+    final Thread thread = new Thread(() -> this.consume(queue, handler), name);
+    thread.setDaemon(true);
+    this.queue = queue;
+    this.worker = thread;
+    thread.start();
+  }
+
+  private void consume(final BlockingQueue<Object> queue, final Consumer<Object> handler) {
+    final Thread thread = Thread.currentThread();
+    while (!thread.isInterrupted()) {
+      final Object input;
+      try {
+        input = queue.take();
+      } catch (final InterruptedException e) {
+        break;
+      }
+      try {
+        handler.accept(input);
+      } catch (final RuntimeException e) {
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    }
+  }
+
+  void submit(final Object input) {
+    final BlockingQueue<Object> queue = this.queue;
+    if (queue == null) {
+      release(input);
+      return;
+    }
+    if (this.policy == QueuePolicy.DROP_OLDEST) {
+      while (!queue.offer(input)) {
+        final Object oldest = queue.poll();
+        if (oldest != null) {
+          this.dropped.incrementAndGet();
+          release(oldest);
+        }
+      }
+      return;
+    }
+    try {
+      queue.put(input);
+    } catch (final InterruptedException e) {
+      release(input);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void release(final Object input) {
+    if (input instanceof final FramePacket packet) {
+      packet.release();
+    }
+  }
+
+  synchronized void stop() {
+    final Thread thread = this.worker;
+    final BlockingQueue<Object> queue = this.queue;
+    if (thread == null) {
+      return;
+    }
+    this.worker = null;
+    this.queue = null;
+    final List<Object> pending = new ArrayList<>();
+    queue.drainTo(pending);
+    pending.forEach(FramePipelineStage::release);
+    thread.interrupt();
+    if (thread != Thread.currentThread()) {
+      try {
+        thread.join(JOIN_TIMEOUT_MILLIS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public int getQueueDepth() {
+    final BlockingQueue<Object> queue = this.queue;
+    return queue == null ? 0 : queue.size();
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  public QueuePolicy getPolicy() {
+    return this.policy;
+  }
+
+  public long getDroppedFrames() {
+    return this.dropped.get();
+  }
+
+  public boolean isRunning() {
+    return this.worker != null;
+  }
+
+  @Override
+  public List<FramePipelineStep<Object, Object>> getSteps() {
+    return this.steps;
+  }
+
+  @Override
+  public void addSteps(final Collection<FramePipelineStep<Object, Object>> steps) {
+    this.steps.addAll(steps);
+  }
+
+  @Override
+  public void addStep(final FramePipelineStep<Object, Object> step) {
+    this.steps.add(step);
+  }
+
+  @Override
+  public void removeStep(final FramePipelineStep<Object, Object> step) {
+    this.steps.remove(step);
+  }
+}
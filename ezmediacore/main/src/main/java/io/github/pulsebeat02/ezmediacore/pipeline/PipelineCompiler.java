@@ -0,0 +1,121 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+import io.github.pulsebeat02.ezmediacore.metrics.PipelineStepEvent;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Fuses a list of steps into a chain of {@link PipelineLink}s, one hidden class per step. If hidden
+ * classes cannot be defined the chain is built from {@link InterpretedStep}s instead, which behave
+ * the same but share their call sites.
+ */
+final class PipelineCompiler {
+
+  private static final byte[] TEMPLATE = readTemplate();
+
+  private PipelineCompiler() {
+    throw new UnsupportedOperationException();
+  }
+
+  private static byte[] readTemplate() {
+    try (final InputStream stream = CompiledStep.class.getResourceAsStream("CompiledStep.class")) {
+      return stream == null ? null : stream.readAllBytes();
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  static PipelineChain compile(final List<FramePipelineStep<Object, Object>> steps, final int pipeline) {
+    final FramePipelineStep<Object, Object>[] snapshot = steps.toArray(FramePipelineStep[]::new);
+    PipelineLink link = PipelineLink.END;
+    boolean compiled = TEMPLATE != null;
+    for (int i = snapshot.length - 1; i >= 0; i--) {
+      final FramePipelineStep<Object, Object> step = snapshot[i];
+      final PipelineLink next = link;
+      link = compiled ? define(step, next, pipeline) : null;
+      if (link == null) {
+        compiled = false;
+        link = new InterpretedStep(step, next, pipeline);
+      }
+    }
+    return new PipelineChain(snapshot, link, compiled);
+  }
+
+  private static PipelineLink define(
+      final FramePipelineStep<Object, Object> step, final PipelineLink next, final int pipeline) {
+    try {
+      final Lookup lookup = MethodHandles.lookup()
+          .defineHiddenClassWithClassData(TEMPLATE, List.of(step, next, pipeline), true);
+      return (PipelineLink) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+    } catch (final Throwable e) {
+      return null;
+    }
+  }
+
+  static final class PipelineChain {
+
+    private final FramePipelineStep<Object, Object>[] steps;
+    private final PipelineLink head;
+    private final boolean compiled;
+
+    private PipelineChain(final FramePipelineStep<Object, Object>[] steps, final PipelineLink head, final boolean compiled) {
+      this.steps = steps;
+      this.head = head;
+      this.compiled = compiled;
+    }
+
+    boolean matches(final List<FramePipelineStep<Object, Object>> steps) {
+      if (steps.size() != this.steps.length) {
+        return false;
+      }
+      for (int i = 0; i < this.steps.length; i++) {
+        if (steps.get(i) != this.steps[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Object run(final Object input) {
+      return this.head.run(input);
+    }
+
+    boolean isCompiled() {
+      return this.compiled;
+    }
+  }
+
+  private static final class InterpretedStep implements PipelineLink {
+
+    private final FramePipelineStep<Object, Object> step;
+    private final PipelineLink next;
+    private final int pipeline;
+
+    private InterpretedStep(final FramePipelineStep<Object, Object> step, final PipelineLink next, final int pipeline) {
+      this.step = step;
+      this.next = next;
+      this.pipeline = pipeline;
+    }
+
+    @Override
+    public Object run(final Object input) {
+      final PipelineStepEvent event = new PipelineStepEvent();
+      event.begin();
+      final Object output = this.step.process(input);
+      event.end();
+      if (event.shouldCommit()) {
+        BasicPipelineResult.commitStepEvent(event, this.pipeline, this.step, input);
+      }
+      if (output != input && input instanceof final FramePacket packet) {
+        packet.release();
+      }
+      return output == null ? null : this.next.run(output);
+    }
+  }
+}
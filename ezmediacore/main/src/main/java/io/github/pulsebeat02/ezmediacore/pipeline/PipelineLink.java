@@ -0,0 +1,9 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+/** One step of a compiled chain; runs its step and hands the result to the next link. */
+interface PipelineLink {
+
+  PipelineLink END = input -> input;
+
+  Object run(final Object input);
+}
@@ -0,0 +1,11 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+/** What a stage does with a new frame when its queue is full. */
+public enum QueuePolicy {
+
+  /** Wait until the stage has taken a frame off its queue. */
+  BLOCK,
+
+  /** Discard the oldest queued frame to make room, keeping latency bounded. */
+  DROP_OLDEST
+}
@@ -0,0 +1,84 @@
+package io.github.pulsebeat02.ezmediacore.pipeline;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Feeds every decoded frame from a single grabber into several pipelines, so one stream can drive
+ * a map wall, chat and a scoreboard while being fetched and decoded only once. Each pipeline keeps
+ * its own steps and outputs; use a {@code ScalePipelineStep} or a downscaling dither step to give
+ * it its own resolution.
+ *
+ * <p>Pipelines run one after another on the grabber thread and all read the same packet, so steps
+ * must not modify their input in place. Start a pipeline with {@link FramePipeline#thenStage()} to
+ * keep a slow screen from delaying the others.
+ */
+public final class SharedPipelineResult implements FramePipelineResult<Object> {
+
+  private final List<FramePipelineResult> pipelines;
+  private final FramePacketPool pool;
+
+  public SharedPipelineResult(final List<? extends FramePipelineResult> pipelines) {
+    this.pipelines = new CopyOnWriteArrayList<>(pipelines);
+    this.pool = new FramePacketPool();
+  }
+
+  public static SharedPipelineResult of(final FramePipelineResult... pipelines) {
+    return new SharedPipelineResult(Arrays.asList(pipelines));
+  }
+
+  @Override
+  public void executePipeline(final Object input) {
+    try {
+      for (final FramePipelineResult pipeline : this.pipelines) {
+        if (input instanceof final FramePacket packet) {
+          packet.retain();
+        }
+        pipeline.executePipeline(input);
+      }
+    } finally {
+      if (input instanceof final FramePacket packet) {
+        packet.release();
+      }
+    }
+  }
+
+  @Override
+  public boolean hasDemand() {
+    for (final FramePipelineResult pipeline : this.pipelines) {
+      if (pipeline.hasDemand()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void addPipeline(final FramePipelineResult pipeline) {
+    this.pipelines.add(checkNotNull(pipeline, "Pipeline cannot be null!"));
+  }
+
+  public boolean removePipeline(final FramePipelineResult pipeline) {
+    return this.pipelines.remove(pipeline);
+  }
+
+  @Override
+  public void releasePipelines() {
+    for (final FramePipelineResult pipeline : this.pipelines) {
+      pipeline.releasePipelines();
+    }
+  }
+
+  @Override
+  public FramePacketPool getPacketPool() {
+    return this.pool;
+  }
+
+  public List<FramePipelineResult> getPipelines() {
+    return List.copyOf(this.pipelines);
+  }
+}
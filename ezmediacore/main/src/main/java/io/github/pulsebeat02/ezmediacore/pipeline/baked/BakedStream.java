@@ -0,0 +1,268 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a baked map stream written by {@link BakedStreamWriter}. The file is memory-mapped and
+ * inflated straight out of the mapping, so playing it back costs a page fault and an inflate per
+ * frame.
+ *
+ * <p>The stream is a cursor: {@link #advance()} moves to the next frame and {@link #getFrame()},
+ * {@link #getAudio()} and {@link #getTimestamp()} describe the current one. The frame array is
+ * reused for every frame. The stream is not thread-safe.
+ */
+public final class BakedStream implements Closeable {
+
+  private static final ValueLayout.OfInt INT =
+      ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+  private final Arena arena;
+  private final MemorySegment segment;
+  private final int width;
+  private final int height;
+  private final int keyframeInterval;
+  private final long end;
+  private final int frameCount;
+  private final long duration;
+  private final long[] keyframeTimestamps;
+  private final long[] keyframeOffsets;
+  private final Inflater inflater;
+  private final byte[] frame;
+  private final byte[] delta;
+
+  private long position;
+  private long timestamp;
+  private byte[] audio;
+  private boolean decoded;
+
+  private BakedStream(final Arena arena, final MemorySegment segment) throws IOException {
+    this.arena = arena;
+    this.segment = segment;
+    final long size = segment.byteSize();
+    if (size < BakedStreamFormat.HEADER_SIZE + BakedStreamFormat.FOOTER_SIZE
+        || segment.get(INT, 0) != BakedStreamFormat.MAGIC
+        || segment.get(INT, size - 4) != BakedStreamFormat.MAGIC) {
+      throw new IOException("Not a baked map stream!");
+    }
+    final int version = segment.get(INT, 4);
+    if (version != BakedStreamFormat.VERSION) {
+      throw new IOException("Unsupported baked map stream version %d!".formatted(version));
+    }
+    this.width = segment.get(INT, 8);
+    this.height = segment.get(INT, 12);
+    this.keyframeInterval = segment.get(INT, 16);
+    final long footer = size - BakedStreamFormat.FOOTER_SIZE;
+    this.end = segment.get(LONG, footer);
+    this.frameCount = segment.get(INT, footer + 8);
+    final int keyframes = segment.get(INT, footer + 12);
+    this.duration = segment.get(LONG, footer + 16);
+    this.keyframeTimestamps = new long[keyframes];
+    this.keyframeOffsets = new long[keyframes];
+    for (int i = 0; i < keyframes; i++) {
+      final long entry = this.end + (long) i * BakedStreamFormat.INDEX_ENTRY_SIZE;
+      this.keyframeTimestamps[i] = segment.get(LONG, entry);
+      this.keyframeOffsets[i] = segment.get(LONG, entry + 8);
+    }
+    this.inflater = new Inflater();
+    this.frame = new byte[this.width * this.height];
+    this.delta = new byte[this.width * this.height];
+    this.position = BakedStreamFormat.HEADER_SIZE;
+    this.timestamp = -1;
+  }
+
+  /**
+   * Maps a baked map stream into memory. The mapping stays open until the stream is closed.
+   *
+   * @param path the file to read
+   * @return the stream, positioned before its first frame
+   * @throws IOException if the file cannot be read or is not a baked map stream
+   */
+  public static BakedStream open(final Path path) throws IOException {
+    final Arena arena = Arena.ofShared();
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final MemorySegment segment =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+      return new BakedStream(arena, segment);
+    } catch (final IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Moves to the next frame and decodes it.
+   *
+   * @return whether there was another frame
+   * @throws IOException if the frame is corrupt
+   */
+  public boolean advance() throws IOException {
+    if (!this.hasNext()) {
+      return false;
+    }
+    final long offset = this.position;
+    final byte flags = this.segment.get(ValueLayout.JAVA_BYTE, offset);
+    final int videoLength = this.segment.get(INT, offset + 9);
+    final int audioLength = this.segment.get(INT, offset + 13);
+    final int rawAudioLength = this.segment.get(INT, offset + 17);
+    final long data = offset + BakedStreamFormat.FRAME_HEADER_SIZE;
+    final boolean keyframe = (flags & BakedStreamFormat.KEYFRAME) != 0;
+    if (!keyframe && !this.decoded) {
+      throw new IOException("Delta frame without a preceding keyframe!");
+    }
+    final byte[] video = keyframe ? this.frame : this.delta;
+    this.inflate(data, videoLength, video);
+    if (!keyframe) {
+      for (int i = 0; i < video.length; i++) {
+        this.frame[i] ^= video[i];
+      }
+    }
+    this.audio = rawAudioLength == 0 ? null : new byte[rawAudioLength];
+    if (this.audio != null) {
+      this.inflate(data + videoLength, audioLength, this.audio);
+    }
+    this.timestamp = this.segment.get(LONG, offset + 1);
+    this.position = data + videoLength + audioLength;
+    this.decoded = true;
+    return true;
+  }
+
+  private void inflate(final long offset, final int length, final byte[] output) throws IOException {
+    this.inflater.reset();
+    this.inflater.setInput(this.segment.asSlice(offset, length).asByteBuffer());
+    try {
+      int written = 0;
+      while (written < output.length && !this.inflater.finished()) {
+        final int count = this.inflater.inflate(output, written, output.length - written);
+        if (count == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+          break;
+        }
+        written += count;
+      }
+      if (written != output.length) {
+        throw new IOException("Truncated frame in baked map stream!");
+      }
+    } catch (final DataFormatException e) {
+      throw new IOException(e);
+    }
+  }
+
+  public boolean hasNext() {
+    return this.position < this.end;
+  }
+
+  /**
+   * Moves to the last frame shown at or before {@code timestamp}. Decoding starts from the nearest
+   * keyframe before it, so at most one keyframe interval of frames is inflated.
+   *
+   * @param timestamp the position in microseconds
+   * @throws IOException if a frame is corrupt
+   */
+  public void seek(final long timestamp) throws IOException {
+    if (this.keyframeOffsets.length == 0) {
+      return;
+    }
+    int index = Arrays.binarySearch(this.keyframeTimestamps, timestamp);
+    if (index < 0) {
+      index = Math.max(-index - 2, 0);
+    }
+    while (index > 0 && this.keyframeTimestamps[index - 1] == this.keyframeTimestamps[index]) {
+      index--;
+    }
+    this.position = this.keyframeOffsets[index];
+    this.decoded = false;
+    this.advance();
+    while (this.hasNext() && this.peekTimestamp() <= timestamp) {
+      this.advance();
+    }
+  }
+
+  private long peekTimestamp() {
+    return this.segment.get(LONG, this.position + 1);
+  }
+
+  /**
+   * Returns the map colors of the current frame. The array is overwritten by the next call to
+   * {@link #advance()} or {@link #seek(long)}.
+   *
+   * @return the current frame
+   */
+  public byte[] getFrame() {
+    checkState(this.decoded, "No frame has been read!");
+    return this.frame;
+  }
+
+  /**
+   * Returns the audio of the current frame in {@code GrabberPlayer.AUDIO_FORMAT}.
+   *
+   * @return the audio, or {@code null} if the frame has none
+   */
+  public byte[] getAudio() {
+    return this.audio;
+  }
+
+  /**
+   * Returns the presentation timestamp of the current frame.
+   *
+   * @return the timestamp in microseconds, or -1 before the first frame
+   */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Returns the average frame rate of the stream.
+   *
+   * @return the frame rate, or 0 if the stream is shorter than two frames
+   */
+  public double getFrameRate() {
+    return this.frameCount < 2 || this.duration <= 0
+        ? 0
+        : (this.frameCount - 1) * 1_000_000.0 / this.duration;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  public int getKeyframeInterval() {
+    return this.keyframeInterval;
+  }
+
+  public int getFrameCount() {
+    return this.frameCount;
+  }
+
+  /**
+   * Returns the timestamp of the last frame.
+   *
+   * @return the duration in microseconds
+   */
+  public long getDuration() {
+    return this.duration;
+  }
+
+  @Override
+  public void close() {
+    this.inflater.end();
+    this.arena.close();
+  }
+}
@@ -0,0 +1,31 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+/**
+ * Layout of a baked map stream. All numbers are big-endian.
+ *
+ * <pre>
+ * header   int magic, int version, int width, int height, int keyframe interval
+ * frame    byte flags, long timestamp, int video length, int audio length, int raw audio length,
+ *          deflated video, deflated audio
+ * index    per keyframe: long timestamp, long frame offset
+ * footer   long index offset, int frame count, int keyframe count, long duration, int magic
+ * </pre>
+ *
+ * <p>Video is the frame's map color bytes; keyframes store them as is and every other frame stores
+ * them XOR the previous frame, so unchanged pixels deflate to almost nothing. Audio is stored per
+ * frame without delta coding and has a length of 0 when the frame carried none.
+ */
+final class BakedStreamFormat {
+
+  static final int MAGIC = 0x455A4D42; // EZMB
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 20;
+  static final int FRAME_HEADER_SIZE = 21;
+  static final int INDEX_ENTRY_SIZE = 16;
+  static final int FOOTER_SIZE = 28;
+  static final byte KEYFRAME = 0x1;
+
+  private BakedStreamFormat() {
+    throw new UnsupportedOperationException();
+  }
+}
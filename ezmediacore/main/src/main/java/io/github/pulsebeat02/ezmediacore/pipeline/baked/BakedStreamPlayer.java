@@ -0,0 +1,211 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+import io.github.pulsebeat02.ezmediacore.metrics.Counter;
+import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FrameTiming;
+import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberPlayer;
+import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a baked map stream at its recorded pace. The input is the path of a file written by {@link
+ * BakedStreamWriter}; frames are handed to the pipeline already dithered, so it usually holds
+ * nothing but a {@code MapFrameOutput} with the resolution the stream was baked at. Positions
+ * passed to {@link #seek(long)} are in microseconds.
+ */
+public final class BakedStreamPlayer implements GrabberPlayer<DitheredPacket> {
+
+  private final FramePipelineResult result;
+  private final ExecutorService executor;
+  private final Collection<Input> sources;
+  private final Object lock;
+
+  private volatile BakedStream stream;
+  private volatile boolean paused;
+  private boolean seeked;
+  private long origin;
+  private long base;
+
+  public BakedStreamPlayer(final FramePipelineResult result) {
+    this(result, Executors.newSingleThreadExecutor());
+  }
+
+  public BakedStreamPlayer(final FramePipelineResult result, final ExecutorService executor) {
+    this.sources = new ArrayList<>();
+    this.result = result;
+    this.executor = executor;
+    this.lock = new Object();
+    this.base = -1;
+  }
+
+  @Override
+  public void play(final Input video, final Input audio, final Map<String, String> arguments) {
+    throw new UnsupportedOperationException("Baked stream player requires one input");
+  }
+
+  @Override
+  public void play(final Input source, final Map<String, String> arguments) {
+    this.closeStream();
+    final CompletableFuture<String> future = source.getMediaRepresentation();
+    final String raw = future.join();
+    try {
+      final BakedStream stream = BakedStream.open(Path.of(raw));
+      synchronized (this.lock) {
+        this.stream = stream;
+        this.base = -1;
+      }
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+    this.sources.clear();
+    this.sources.add(source);
+    this.paused = false;
+    this.consumeFrames();
+  }
+
+  private void consumeFrames() {
+    CompletableFuture.runAsync(this::playFrames, this.executor);
+  }
+
+  private void playFrames() {
+    final Counter skipped = this.result.getMetrics().counter("grabber.baked.skipped");
+    while (!this.paused) {
+      try {
+        final long wait = this.nextFrame();
+        if (wait < 0) {
+          break;
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        if (this.paused) {
+          break;
+        }
+        if (this.result.hasDemand()) {
+          final DitheredPacket packet = this.grabOutputFrame();
+          if (packet != null) {
+            packet.release();
+          }
+        } else {
+          skipped.increment();
+        }
+      } catch (final InterruptedException | IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  /** Moves to the next frame and returns how long to wait before showing it, or -1 at the end. */
+  private long nextFrame() throws IOException {
+    synchronized (this.lock) {
+      final BakedStream stream = this.stream;
+      if (stream == null) {
+        return -1;
+      }
+      if (this.seeked) {
+        this.seeked = false;
+      } else if (!stream.advance()) {
+        return -1;
+      }
+      final long timestamp = stream.getTimestamp();
+      final long now = System.nanoTime();
+      if (this.base < 0) {
+        this.base = timestamp;
+        this.origin = now;
+      }
+      return Math.max(this.origin + (timestamp - this.base) * 1_000 - now, 0);
+    }
+  }
+
+  @Override
+  public void resume() {
+    synchronized (this.lock) {
+      this.base = -1;
+    }
+    this.paused = false;
+    this.consumeFrames();
+  }
+
+  @Override
+  public void pause() {
+    this.paused = true;
+  }
+
+  @Override
+  public void seek(final long position) {
+    synchronized (this.lock) {
+      final BakedStream stream = this.stream;
+      if (stream == null) {
+        return;
+      }
+      try {
+        stream.seek(position);
+      } catch (final IOException e) {
+        throw new AssertionError(e);
+      }
+      this.seeked = true;
+      this.base = -1;
+    }
+  }
+
+  @Override
+  public void release() {
+    this.paused = true;
+    this.sources.clear();
+    this.closeStream();
+    this.result.releasePipelines();
+  }
+
+  private void closeStream() {
+    synchronized (this.lock) {
+      if (this.stream != null) {
+        this.stream.close();
+        this.stream = null;
+      }
+      this.seeked = false;
+    }
+  }
+
+  @Override
+  public Collection<Input> getSources() {
+    return this.sources;
+  }
+
+  @Override
+  public DitheredPacket grabOutputFrame() {
+    final FramePacketPool pool = this.result.getPacketPool();
+    final DitheredPacket packet;
+    synchronized (this.lock) {
+      final BakedStream stream = this.stream;
+      if (stream == null) {
+        return null;
+      }
+      final byte[] frame = stream.getFrame();
+      final byte[] samples = pool.acquireBytes(frame.length);
+      System.arraycopy(frame, 0, samples, 0, frame.length);
+      final FrameTiming timing = FrameTiming.fromFrameRate(stream.getTimestamp(), stream.getFrameRate());
+      final FramePacket source = new BasicFramePacket(null, stream.getAudio(), stream.getWidth(), stream.getHeight(), null, timing);
+      packet = DitheredFramePacket.create(source, samples, pool);
+    }
+    packet.retain();
+    this.result.executePipeline(packet);
+    return packet;
+  }
+
+  @Override
+  public FramePipelineResult getPipeline() {
+    return this.result;
+  }
+}
@@ -0,0 +1,219 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FrameTiming;
+import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Records the dithered frames of a pipeline into a baked map stream, so a showing that is played
+ * many times with the same settings only pays for decoding and dithering once. Use it as the output
+ * of a pipeline that dithers to the resolution of the map wall, play the media through it once and
+ * {@link #close()} it; {@link BakedStreamPlayer} then plays the file back.
+ *
+ * <p>Frames are stamped with their presentation timestamp, or with the time since the first frame
+ * when they carry none.
+ */
+public final class BakedStreamWriter implements FrameOutputSource<DitheredPacket>, Closeable {
+
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+  private final FileChannel channel;
+  private final int width;
+  private final int height;
+  private final int keyframeInterval;
+  private final Deflater deflater;
+  private final ByteBuffer frameHeader;
+  private final byte[] previous;
+  private final byte[] delta;
+  private final List<long[]> keyframes;
+
+  private byte[] compressed;
+  private int frames;
+  private long start;
+  private long timestamp;
+  private boolean closed;
+
+  public BakedStreamWriter(final Path path, final Dimension resolution) throws IOException {
+    this(path, resolution, DEFAULT_KEYFRAME_INTERVAL, Deflater.BEST_SPEED);
+  }
+
+  /**
+   * Creates the file, replacing any existing one, and writes its header.
+   *
+   * @param path the file to write
+   * @param resolution the resolution of the dithered frames
+   * @param keyframeInterval the number of frames between keyframes; seeking decodes up to this many
+   * @param level the deflate level, from {@link Deflater#BEST_SPEED} to {@link
+   *     Deflater#BEST_COMPRESSION}
+   * @throws IOException if the file cannot be created
+   */
+  public BakedStreamWriter(
+      final Path path, final Dimension resolution, final int keyframeInterval, final int level)
+      throws IOException {
+    checkNotNull(path, "Path cannot be null!");
+    checkNotNull(resolution, "Resolution cannot be null!");
+    checkArgument(keyframeInterval > 0, "Keyframe interval must be positive!");
+    this.width = resolution.getWidth();
+    this.height = resolution.getHeight();
+    this.keyframeInterval = keyframeInterval;
+    this.deflater = new Deflater(level);
+    this.frameHeader = ByteBuffer.allocate(BakedStreamFormat.FRAME_HEADER_SIZE);
+    this.previous = new byte[this.width * this.height];
+    this.delta = new byte[this.width * this.height];
+    this.keyframes = new ArrayList<>();
+    this.compressed = new byte[this.width * this.height];
+    this.channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    final ByteBuffer header = ByteBuffer.allocate(BakedStreamFormat.HEADER_SIZE)
+        .putInt(BakedStreamFormat.MAGIC)
+        .putInt(BakedStreamFormat.VERSION)
+        .putInt(this.width)
+        .putInt(this.height)
+        .putInt(keyframeInterval)
+        .flip();
+    this.write(header);
+  }
+
+  @Override
+  public synchronized void output(final DitheredPacket input) {
+    if (this.closed) {
+      return;
+    }
+    final byte[] video = input.getMapDitheredSamples();
+    checkArgument(video.length == this.previous.length, "Frame does not match the stream resolution!");
+    try {
+      this.writeFrame(input, video);
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private void writeFrame(final DitheredPacket input, final byte[] video) throws IOException {
+    final long timestamp = this.getTimestamp(input.getTiming());
+    final boolean keyframe = this.frames % this.keyframeInterval == 0;
+    final byte[] source;
+    if (keyframe) {
+      source = video;
+    } else {
+      for (int i = 0; i < video.length; i++) {
+        this.delta[i] = (byte) (video[i] ^ this.previous[i]);
+      }
+      source = this.delta;
+    }
+    System.arraycopy(video, 0, this.previous, 0, video.length);
+    final byte[] audio = input.getAudioSamples();
+    final int rawAudioLength = audio == null ? 0 : audio.length;
+    final int videoLength = this.deflate(source, 0);
+    final int audioLength = rawAudioLength == 0 ? 0 : this.deflate(audio, videoLength);
+    if (keyframe) {
+      this.keyframes.add(new long[] {timestamp, this.channel.position()});
+    }
+    this.frameHeader.clear()
+        .put(keyframe ? BakedStreamFormat.KEYFRAME : 0)
+        .putLong(timestamp)
+        .putInt(videoLength)
+        .putInt(audioLength)
+        .putInt(rawAudioLength)
+        .flip();
+    this.write(this.frameHeader);
+    this.write(ByteBuffer.wrap(this.compressed, 0, videoLength + audioLength));
+    this.frames++;
+    this.timestamp = timestamp;
+  }
+
+  private long getTimestamp(final FrameTiming timing) {
+    final long now = System.nanoTime();
+    if (this.frames == 0) {
+      this.start = now;
+    }
+    final long timestamp = timing.getTimestamp();
+    final long stamped = timestamp < 0 ? (now - this.start) / 1_000 : timestamp;
+    return Math.max(stamped, this.timestamp);
+  }
+
+  private int deflate(final byte[] input, final int offset) {
+    this.deflater.reset();
+    this.deflater.setInput(input);
+    this.deflater.finish();
+    int position = offset;
+    while (!this.deflater.finished()) {
+      if (position == this.compressed.length) {
+        this.compressed = Arrays.copyOf(this.compressed, this.compressed.length << 1);
+      }
+      position += this.deflater.deflate(this.compressed, position, this.compressed.length - position);
+    }
+    return position - offset;
+  }
+
+  private void write(final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+  }
+
+  /**
+   * Writes the keyframe index and closes the file. Frames handed to the writer afterwards are
+   * ignored.
+   *
+   * @throws IOException if the index cannot be written
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    try (this.channel) {
+      final long indexOffset = this.channel.position();
+      final ByteBuffer index = ByteBuffer.allocate(
+          this.keyframes.size() * BakedStreamFormat.INDEX_ENTRY_SIZE + BakedStreamFormat.FOOTER_SIZE);
+      for (final long[] keyframe : this.keyframes) {
+        index.putLong(keyframe[0]).putLong(keyframe[1]);
+      }
+      index.putLong(indexOffset)
+          .putInt(this.frames)
+          .putInt(this.keyframes.size())
+          .putLong(this.timestamp)
+          .putInt(BakedStreamFormat.MAGIC)
+          .flip();
+      this.write(index);
+    } finally {
+      this.deflater.end();
+    }
+  }
+
+  @Override
+  public void release() {
+    try {
+      this.close();
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  public synchronized int getFrameCount() {
+    return this.frames;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+}
@@ -0,0 +1,263 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
+import io.github.pulsebeat02.ezmediacore.util.io.FileUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps rendered map streams on disk so that playing the same clip again, or on a second screen,
+ * is served by a {@link BakedStreamPlayer} instead of FFmpeg and the dither engine. Entries are
+ * named after their {@link RenderKey} and evicted least recently used first once the cache grows
+ * past its size cap; the last use is kept in the file's modification time, so the order survives
+ * restarts.
+ *
+ * <p>Record a miss by adding {@link #record(RenderKey, Dimension)} as an output of the dithering
+ * pipeline and calling {@link Recording#commit()} once the clip has played to the end. A recording
+ * that is released before it is committed is thrown away.
+ */
+public final class RenderCache {
+
+  public static final long DEFAULT_MAX_SIZE = 2L << 30;
+
+  private static final String EXTENSION = ".ezmb";
+  private static final String PARTIAL_EXTENSION = ".part";
+
+  private final Path directory;
+
+  private volatile long maxSize;
+
+  public RenderCache(final Path directory, final long maxSize) {
+    checkNotNull(directory, "Directory cannot be null!");
+    checkArgument(maxSize >= 0, "Maximum size cannot be negative!");
+    this.directory = directory;
+    this.maxSize = maxSize;
+    FileUtils.createDirectoryIfNotExistsExceptionally(directory);
+    this.deletePartialFiles();
+  }
+
+  private void deletePartialFiles() {
+    for (final Path file : this.listFiles(PARTIAL_EXTENSION)) {
+      FileUtils.deleteFileExceptionally(file);
+    }
+  }
+
+  /**
+   * Returns the cached render for {@code key} and marks it as recently used.
+   *
+   * @param key the render
+   * @return the baked map stream, or an empty optional on a miss
+   */
+  public Optional<Path> lookup(final RenderKey key) {
+    final Path entry = this.getEntry(key);
+    if (!Files.isRegularFile(entry)) {
+      return Optional.empty();
+    }
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (final IOException e) {
+      return Optional.empty();
+    }
+    return Optional.of(entry);
+  }
+
+  public Recording record(final RenderKey key, final Dimension resolution) throws IOException {
+    return this.record(key, resolution, BakedStreamWriter.DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * Starts recording a render. Several recordings of the same key may run at once; the last one
+   * committed wins.
+   *
+   * @param key the render
+   * @param resolution the resolution of the dithered frames
+   * @param keyframeInterval the number of frames between keyframes
+   * @return the recording, to be added as a pipeline output
+   * @throws IOException if the file cannot be created
+   */
+  public Recording record(final RenderKey key, final Dimension resolution, final int keyframeInterval)
+      throws IOException {
+    final Path partial = this.directory.resolve("%s.%s%s".formatted(key.getDigest(), UUID.randomUUID(), PARTIAL_EXTENSION));
+    final BakedStreamWriter writer =
+        new BakedStreamWriter(partial, resolution, keyframeInterval, Deflater.BEST_SPEED);
+    return new Recording(key, partial, writer);
+  }
+
+  public boolean invalidate(final RenderKey key) throws IOException {
+    return Files.deleteIfExists(this.getEntry(key));
+  }
+
+  /**
+   * Deletes the least recently used renders until the cache fits its size cap.
+   *
+   * @throws IOException if the cache directory cannot be listed
+   */
+  public synchronized void trim() throws IOException {
+    final List<Entry> entries = this.listEntries();
+    long size = 0;
+    for (final Entry entry : entries) {
+      size += entry.size;
+    }
+    entries.sort(Comparator.comparing(entry -> entry.lastUsed));
+    final long max = this.maxSize;
+    for (final Entry entry : entries) {
+      if (size <= max) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(entry.path);
+        size -= entry.size;
+      } catch (final IOException e) {
+        // still mapped by a player on a platform that locks mapped files; retry on the next trim
+      }
+    }
+  }
+
+  public synchronized void clear() throws IOException {
+    for (final Entry entry : this.listEntries()) {
+      Files.deleteIfExists(entry.path);
+    }
+  }
+
+  /**
+   * Returns the total size of all committed renders.
+   *
+   * @return the size in bytes
+   * @throws IOException if the cache directory cannot be listed
+   */
+  public long getSize() throws IOException {
+    long size = 0;
+    for (final Entry entry : this.listEntries()) {
+      size += entry.size;
+    }
+    return size;
+  }
+
+  private List<Entry> listEntries() throws IOException {
+    final List<Entry> entries = new ArrayList<>();
+    for (final Path file : this.listFiles(EXTENSION)) {
+      try {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+      } catch (final IOException e) {
+        // deleted while listing
+      }
+    }
+    return entries;
+  }
+
+  private List<Path> listFiles(final String extension) {
+    try (final Stream<Path> files = Files.list(this.directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(extension)).toList();
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private Path getEntry(final RenderKey key) {
+    return this.directory.resolve(key.getDigest() + EXTENSION);
+  }
+
+  public void setMaxSize(final long maxSize) {
+    checkArgument(maxSize >= 0, "Maximum size cannot be negative!");
+    this.maxSize = maxSize;
+  }
+
+  public long getMaxSize() {
+    return this.maxSize;
+  }
+
+  public Path getDirectory() {
+    return this.directory;
+  }
+
+  private static final class Entry {
+
+    private final Path path;
+    private final long size;
+    private final FileTime lastUsed;
+
+    private Entry(final Path path, final long size, final FileTime lastUsed) {
+      this.path = path;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+  /** A render being written to the cache. */
+  public final class Recording implements FrameOutputSource<DitheredPacket> {
+
+    private final RenderKey key;
+    private final Path partial;
+    private final BakedStreamWriter writer;
+
+    private boolean finished;
+
+    private Recording(final RenderKey key, final Path partial, final BakedStreamWriter writer) {
+      this.key = key;
+      this.partial = partial;
+      this.writer = writer;
+    }
+
+    @Override
+    public void output(final DitheredPacket input) {
+      this.writer.output(input);
+    }
+
+    /**
+     * Finishes the render, makes it visible to {@link #lookup(RenderKey)} and trims the cache.
+     *
+     * @return the committed baked map stream
+     * @throws IOException if the render cannot be moved into place
+     */
+    public synchronized Path commit() throws IOException {
+      checkState(!this.finished, "Recording has already finished!");
+      this.finished = true;
+      this.writer.close();
+      final Path entry = RenderCache.this.getEntry(this.key);
+      Files.move(this.partial, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      RenderCache.this.trim();
+      return entry;
+    }
+
+    /** Stops the recording and deletes what was written so far, unless it was committed. */
+    public synchronized void discard() {
+      if (this.finished) {
+        return;
+      }
+      this.finished = true;
+      this.writer.release();
+      FileUtils.deleteFileExceptionally(this.partial);
+    }
+
+    @Override
+    public void release() {
+      this.discard();
+    }
+
+    public RenderKey getKey() {
+      return this.key;
+    }
+
+    public int getFrameCount() {
+      return this.writer.getFrameCount();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.baked;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
+import io.github.pulsebeat02.ezmediacore.pipeline.input.PathInput;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering.DitherConfiguration;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Identifies a render in the {@link RenderCache}: the source, the map resolution, the palette, the
+ * dither algorithm and its settings, and the dither configuration. Local files are identified by a
+ * hash of their contents, so a file that is replaced in place is rendered again; anything else by
+ * its media URL.
+ */
+public final class RenderKey {
+
+  private final String digest;
+
+  private RenderKey(final String digest) {
+    this.digest = digest;
+  }
+
+  public static RenderKey of(
+      final Input source, final Dimension resolution, final DitherAlgorithm algorithm) {
+    return of(source, resolution, algorithm, DitherConfiguration.DEFAULT);
+  }
+
+  public static RenderKey of(
+      final Input source,
+      final Dimension resolution,
+      final DitherAlgorithm algorithm,
+      final DitherConfiguration configuration) {
+    return of(getSourceIdentity(source), resolution, algorithm, configuration, "");
+  }
+
+  public static RenderKey of(
+      final String source,
+      final Dimension resolution,
+      final DitherAlgorithm algorithm,
+      final String settings) {
+    return of(source, resolution, algorithm, DitherConfiguration.DEFAULT, settings);
+  }
+
+  /**
+   * Creates a key from an explicit source identity.
+   *
+   * @param source the identity of the source, such as a URL or a content hash
+   * @param resolution the resolution of the map frames
+   * @param algorithm the dither algorithm; its {@link DitherAlgorithm#getCacheKey() cache key} and
+   *     palette are part of the key
+   * @param configuration the configuration of the dither step
+   * @param settings anything else that changes the output, such as a downscale factor
+   * @return the key
+   */
+  public static RenderKey of(
+      final String source,
+      final Dimension resolution,
+      final DitherAlgorithm algorithm,
+      final DitherConfiguration configuration,
+      final String settings) {
+    checkNotNull(source, "Source cannot be null!");
+    checkNotNull(resolution, "Resolution cannot be null!");
+    checkNotNull(algorithm, "Algorithm cannot be null!");
+    checkNotNull(configuration, "Configuration cannot be null!");
+    checkNotNull(settings, "Settings cannot be null!");
+    final Hasher hasher = Hashing.sha256().newHasher()
+        .putString(source, StandardCharsets.UTF_8)
+        .putInt(resolution.getWidth())
+        .putInt(resolution.getHeight())
+        .putString(algorithm.getCacheKey(), StandardCharsets.UTF_8)
+        .putString(configuration.getCacheKey(), StandardCharsets.UTF_8)
+        .putString(settings, StandardCharsets.UTF_8);
+    for (final int color : algorithm.getPalette().getPalette()) {
+      hasher.putInt(color);
+    }
+    return new RenderKey(hasher.hash().toString());
+  }
+
+  private static String getSourceIdentity(final Input source) {
+    checkNotNull(source, "Source cannot be null!");
+    if (source instanceof final PathInput path) {
+      try {
+        return "file:" + Files.asByteSource(path.getPath().toFile()).hash(Hashing.sha256());
+      } catch (final IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+    return "url:" + source.getMediaRepresentation().join();
+  }
+
+  public String getDigest() {
+    return this.digest;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return obj instanceof final RenderKey key && key.digest.equals(this.digest);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.digest.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return this.digest;
+  }
+}
@@ -0,0 +1,58 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Builds reactive frame flows on top of {@link java.util.concurrent.Flow}. A {@link
+ * FramePublisher} takes the place of a pipeline on a grabber, operators are chained with {@code
+ * subscribe}, and an {@link OutputSubscriber} ends the flow in an output. Demand travels from the
+ * output back to the grabber: a grabber only converts a frame once something downstream has asked
+ * for it.
+ *
+ * <pre>{@code
+ * FramePublisher<FramePacket> publisher = FrameFlow.publisher();
+ * ThrottleProcessor<FramePacket> throttle = FrameFlow.throttle(20);
+ * ParallelMapProcessor<FramePacket, DitheredPacket> dither =
+ *     FrameFlow.parallelMap(() -> new FloydSteinbergDitherPipelineStep(palette), 4);
+ * publisher.subscribe(throttle);
+ * throttle.subscribe(dither);
+ * dither.subscribe(FrameFlow.subscriber(output));
+ * }</pre>
+ */
+public final class FrameFlow {
+
+  private FrameFlow() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static <T> FramePublisher<T> publisher() {
+    return new FramePublisher<>();
+  }
+
+  public static <T> LatestProcessor<T> latest() {
+    return new LatestProcessor<>();
+  }
+
+  public static <T> ThrottleProcessor<T> throttle(final double fps) {
+    return new ThrottleProcessor<>(fps);
+  }
+
+  public static <T, R> ParallelMapProcessor<T, R> parallelMap(
+      final Supplier<? extends FramePipelineStep<T, R>> steps, final int parallelism) {
+    return new ParallelMapProcessor<>(steps, parallelism);
+  }
+
+  public static <T, R> ParallelMapProcessor<T, R> parallelMap(
+      final Supplier<? extends FramePipelineStep<T, R>> steps,
+      final int parallelism,
+      final Executor executor) {
+    return new ParallelMapProcessor<>(steps, parallelism, executor);
+  }
+
+  public static <T> OutputSubscriber<T> subscriber(final FrameOutputSource<T> output) {
+    return new OutputSubscriber<>(output);
+  }
+}
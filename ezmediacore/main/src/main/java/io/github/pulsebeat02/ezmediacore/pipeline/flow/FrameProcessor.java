@@ -0,0 +1,83 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base of the operators: one upstream subscription and at most one downstream subscriber. Items
+ * that arrive before anyone subscribed downstream are dropped by the operators, as they never
+ * request more than downstream asked for.
+ */
+abstract class FrameProcessor<T, R> implements Flow.Processor<T, R> {
+
+  private static final Flow.Subscription CANCELLED = new Flow.Subscription() {
+    @Override
+    public void request(final long n) {}
+
+    @Override
+    public void cancel() {}
+  };
+
+  private final AtomicReference<FrameSubscription<R>> downstream;
+  private final AtomicReference<Flow.Subscription> upstream;
+
+  FrameProcessor() {
+    this.downstream = new AtomicReference<>();
+    this.upstream = new AtomicReference<>();
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super R> subscriber) {
+    checkNotNull(subscriber, "Subscriber cannot be null!");
+    final FrameSubscription<R> subscription =
+        new FrameSubscription<>(subscriber, this::onRequest, this::onCancel);
+    if (!this.downstream.compareAndSet(null, subscription)) {
+      subscriber.onSubscribe(CANCELLED);
+      subscriber.onError(new IllegalStateException("Operator already has a subscriber!"));
+      return;
+    }
+    subscriber.onSubscribe(subscription);
+  }
+
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    checkNotNull(subscription, "Subscription cannot be null!");
+    if (!this.upstream.compareAndSet(null, subscription)) {
+      subscription.cancel();
+      return;
+    }
+    this.onUpstream(subscription);
+  }
+
+  /** Called once the upstream subscription is known. */
+  void onUpstream(final Flow.Subscription subscription) {
+    this.onRequest();
+  }
+
+  /** Called whenever downstream asks for more. */
+  abstract void onRequest();
+
+  void onCancel() {
+    final Flow.Subscription subscription = this.upstream.getAndSet(CANCELLED);
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+
+  FrameSubscription<R> getDownstream() {
+    return this.downstream.get();
+  }
+
+  Flow.Subscription getUpstream() {
+    return this.upstream.get();
+  }
+
+  void requestUpstream(final long n) {
+    final Flow.Subscription subscription = this.upstream.get();
+    if (subscription != null && n > 0) {
+      subscription.request(n);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the frames of a grabber. Pass it to a grabber in place of a pipeline; every frame goes
+ * to each subscriber that has requested one, on the grabber thread, and is skipped for the rest.
+ * The publisher only reports demand while some subscriber has requested a frame, so grabbers stop
+ * converting frames nobody asked for.
+ *
+ * <p>Each subscriber receives its own reference to a packet and has to release it. Packets are
+ * delivered as the grabber made them, so a subscriber that keeps one or passes it to another
+ * thread has to {@link io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket#detach()
+ * detach} it first; the operators in this package do.
+ */
+public final class FramePublisher<T> implements Flow.Publisher<T>, FramePipelineResult<T> {
+
+  private final List<FrameSubscription<T>> subscriptions;
+  private final FramePacketPool pool;
+  private final AtomicLong skipped;
+
+  private volatile boolean completed;
+
+  public FramePublisher() {
+    this.subscriptions = new CopyOnWriteArrayList<>();
+    this.pool = new FramePacketPool();
+    this.skipped = new AtomicLong();
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+    checkNotNull(subscriber, "Subscriber cannot be null!");
+    final FrameSubscription<T> subscription = new FrameSubscription<>(
+        subscriber, () -> {}, () -> this.subscriptions.removeIf(FrameSubscription::isCancelled));
+    this.subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    if (this.completed && this.subscriptions.remove(subscription)) {
+      subscriber.onComplete();
+    }
+  }
+
+  @Override
+  public void executePipeline(final T input) {
+    try {
+      boolean delivered = false;
+      for (final FrameSubscription<T> subscription : this.subscriptions) {
+        if (!subscription.tryConsume()) {
+          continue;
+        }
+        delivered = true;
+        if (input instanceof final FramePacket packet) {
+          packet.retain();
+        }
+        try {
+          subscription.getSubscriber().onNext(input);
+        } catch (final RuntimeException e) {
+          subscription.cancel();
+          FrameSubscription.reportError(e);
+        }
+      }
+      if (!delivered) {
+        this.skipped.incrementAndGet();
+      }
+    } finally {
+      FrameSubscription.release(input);
+    }
+  }
+
+  @Override
+  public boolean hasDemand() {
+    for (final FrameSubscription<T> subscription : this.subscriptions) {
+      if (subscription.hasDemand()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Completes every subscriber. Grabbers call this when they are released. */
+  @Override
+  public void releasePipelines() {
+    this.completed = true;
+    for (final FrameSubscription<T> subscription : this.subscriptions) {
+      if (this.subscriptions.remove(subscription)) {
+        subscription.getSubscriber().onComplete();
+      }
+    }
+  }
+
+  @Override
+  public FramePacketPool getPacketPool() {
+    return this.pool;
+  }
+
+  /**
+   * Returns how many frames reached the publisher while no subscriber had requested one.
+   *
+   * @return the number of skipped frames
+   */
+  public long getSkippedFrames() {
+    return this.skipped.get();
+  }
+
+  public int getSubscriberCount() {
+    return this.subscriptions.size();
+  }
+}
@@ -0,0 +1,111 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The subscription handed to a downstream subscriber. It counts outstanding demand and tells its
+ * owner when more is requested or the subscriber cancels; delivery is left to the owner.
+ */
+final class FrameSubscription<T> implements Flow.Subscription {
+
+  private final Flow.Subscriber<? super T> subscriber;
+  private final Runnable onRequest;
+  private final Runnable onCancel;
+  private final AtomicLong requested;
+
+  private volatile boolean cancelled;
+
+  FrameSubscription(
+      final Flow.Subscriber<? super T> subscriber,
+      final Runnable onRequest,
+      final Runnable onCancel) {
+    this.subscriber = subscriber;
+    this.onRequest = onRequest;
+    this.onCancel = onCancel;
+    this.requested = new AtomicLong();
+  }
+
+  @Override
+  public void request(final long n) {
+    if (this.cancelled) {
+      return;
+    }
+    if (n <= 0) {
+      this.cancel();
+      this.subscriber.onError(new IllegalArgumentException("Requested %d frames, must be positive!".formatted(n)));
+      return;
+    }
+    this.requested.accumulateAndGet(n, (current, added) -> {
+      final long sum = current + added;
+      return sum < 0 ? Long.MAX_VALUE : sum;
+    });
+    this.onRequest.run();
+  }
+
+  @Override
+  public void cancel() {
+    if (!this.cancelled) {
+      this.cancelled = true;
+      this.onCancel.run();
+    }
+  }
+
+  /**
+   * Takes one unit of demand if there is any. Unbounded demand is never used up.
+   *
+   * @return whether the subscriber may be sent another item
+   */
+  boolean tryConsume() {
+    while (true) {
+      final long current = this.requested.get();
+      if (this.cancelled || current == 0) {
+        return false;
+      }
+      if (current == Long.MAX_VALUE || this.requested.compareAndSet(current, current - 1)) {
+        return true;
+      }
+    }
+  }
+
+  boolean hasDemand() {
+    return !this.cancelled && this.requested.get() > 0;
+  }
+
+  boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  Flow.Subscriber<? super T> getSubscriber() {
+    return this.subscriber;
+  }
+
+  /**
+   * Swaps a packet for one that stays valid after the grabber has moved on, as pipeline stages do,
+   * releasing the original if a copy was made. Operators call this before keeping an item or
+   * handing it to another thread.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T detach(final T item) {
+    if (!(item instanceof final FramePacket packet)) {
+      return item;
+    }
+    final FramePacket detached = packet.detach();
+    if (detached != packet) {
+      packet.release();
+    }
+    return (T) detached;
+  }
+
+  static void release(final Object item) {
+    if (item instanceof final FramePacket packet) {
+      packet.release();
+    }
+  }
+
+  static void reportError(final Throwable error) {
+    final Thread thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+  }
+}
@@ -0,0 +1,153 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps only the newest frame. Upstream is never held back; while downstream is busy each new
+ * frame replaces the one waiting for it, so a slow output always gets the most recent picture
+ * instead of working through a backlog. Replaced frames are released, and frames are detached
+ * from the decoder's buffers before they are kept.
+ */
+public final class LatestProcessor<T> extends FrameProcessor<T, T> {
+
+  private final Executor executor;
+  private final AtomicReference<T> latest;
+  private final AtomicBoolean scheduled;
+  private final AtomicLong dropped;
+
+  private volatile boolean done;
+  private volatile Throwable error;
+  private volatile boolean terminated;
+
+  public LatestProcessor() {
+    this(command -> Thread.ofVirtual().name("EzMediaCore Flow").start(command));
+  }
+
+  public LatestProcessor(final Executor executor) {
+    this.executor = checkNotNull(executor, "Executor cannot be null!");
+    this.latest = new AtomicReference<>();
+    this.scheduled = new AtomicBoolean();
+    this.dropped = new AtomicLong();
+  }
+
+  @Override
+  void onUpstream(final Flow.Subscription subscription) {
+    subscription.request(Long.MAX_VALUE);
+  }
+
+  @Override
+  void onRequest() {
+    this.schedule();
+  }
+
+  @Override
+  void onCancel() {
+    super.onCancel();
+    this.clear();
+  }
+
+  @Override
+  public void onNext(final T item) {
+    final FrameSubscription<T> downstream = this.getDownstream();
+    if (this.terminated || (downstream != null && downstream.isCancelled())) {
+      FrameSubscription.release(item);
+      return;
+    }
+    final T previous = this.latest.getAndSet(FrameSubscription.detach(item));
+    if (previous != null) {
+      FrameSubscription.release(previous);
+      this.dropped.incrementAndGet();
+    }
+    this.schedule();
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    this.error = throwable;
+    this.done = true;
+    this.schedule();
+  }
+
+  @Override
+  public void onComplete() {
+    this.done = true;
+    this.schedule();
+  }
+
+  private void schedule() {
+    if (this.scheduled.compareAndSet(false, true)) {
+      this.executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    try {
+      final FrameSubscription<T> downstream = this.getDownstream();
+      if (downstream == null) {
+        return;
+      }
+      if (downstream.isCancelled()) {
+        this.clear();
+        return;
+      }
+      while (this.latest.get() != null && downstream.tryConsume()) {
+        final T item = this.latest.getAndSet(null);
+        if (item == null) {
+          break;
+        }
+        try {
+          downstream.getSubscriber().onNext(item);
+        } catch (final RuntimeException e) {
+          downstream.cancel();
+          FrameSubscription.reportError(e);
+          return;
+        }
+      }
+      if (this.done && this.latest.get() == null && !this.terminated) {
+        this.terminated = true;
+        final Throwable error = this.error;
+        if (error == null) {
+          downstream.getSubscriber().onComplete();
+        } else {
+          downstream.getSubscriber().onError(error);
+        }
+      }
+    } finally {
+      this.scheduled.set(false);
+      if (this.isPending()) {
+        this.schedule();
+      }
+    }
+  }
+
+  private boolean isPending() {
+    final FrameSubscription<T> downstream = this.getDownstream();
+    if (downstream == null || downstream.isCancelled() || this.terminated) {
+      return false;
+    }
+    return (this.latest.get() != null && downstream.hasDemand())
+        || (this.done && this.latest.get() == null);
+  }
+
+  private void clear() {
+    final T item = this.latest.getAndSet(null);
+    if (item != null) {
+      FrameSubscription.release(item);
+    }
+  }
+
+  /**
+   * Returns how many frames were replaced by a newer one before downstream asked for them.
+   *
+   * @return the number of dropped frames
+   */
+  public long getDroppedFrames() {
+    return this.dropped.get();
+  }
+}
@@ -0,0 +1,77 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
+import java.util.concurrent.Flow;
+
+/**
+ * Feeds an output from a publisher one frame at a time: the next frame is only requested once the
+ * output has finished with the current one, so a slow output slows the flow down instead of
+ * queueing frames. Packets are released after the output has seen them, and the output is
+ * released when the flow ends.
+ */
+public final class OutputSubscriber<T> implements Flow.Subscriber<T> {
+
+  private final FrameOutputSource<T> output;
+
+  private volatile Flow.Subscription subscription;
+  private volatile Throwable error;
+
+  public OutputSubscriber(final FrameOutputSource<T> output) {
+    this.output = checkNotNull(output, "Output cannot be null!");
+  }
+
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    if (this.subscription != null) {
+      subscription.cancel();
+      return;
+    }
+    this.subscription = subscription;
+    subscription.request(1);
+  }
+
+  @Override
+  public void onNext(final T item) {
+    try {
+      this.output.output(item);
+    } finally {
+      FrameSubscription.release(item);
+    }
+    this.subscription.request(1);
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    this.error = throwable;
+    this.output.release();
+  }
+
+  @Override
+  public void onComplete() {
+    this.output.release();
+  }
+
+  /** Stops receiving frames and releases the output. */
+  public void cancel() {
+    final Flow.Subscription subscription = this.subscription;
+    if (subscription != null) {
+      subscription.cancel();
+    }
+    this.output.release();
+  }
+
+  public FrameOutputSource<T> getOutput() {
+    return this.output;
+  }
+
+  /**
+   * Returns the error the flow ended with.
+   *
+   * @return the error, or {@code null} if the flow has not failed
+   */
+  public Throwable getError() {
+    return this.error;
+  }
+}
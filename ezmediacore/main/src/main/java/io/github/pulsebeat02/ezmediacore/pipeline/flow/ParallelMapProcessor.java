@@ -0,0 +1,232 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a pipeline step on several frames at once and emits the results in the order the frames
+ * came in. At most {@code parallelism} frames are requested or being processed at a time, and new
+ * ones are only requested while downstream wants more, so a slow output still holds the grabber
+ * back. A step returning {@code null} drops the frame, as it does in a pipeline.
+ *
+ * <p>Pipeline steps keep state between frames and are not thread safe, so every worker gets a step
+ * of its own from the supplier, and a step is only ever used by one task at a time. Each step then
+ * only sees some of the frames, so leave state that spans consecutive frames, such as temporal
+ * coherence or letterbox detection, to a step in front of the parallel map. Frames are detached
+ * from the decoder's buffers before they are handed to a worker.
+ */
+public final class ParallelMapProcessor<T, R> extends FrameProcessor<T, R> {
+
+  private final Supplier<? extends FramePipelineStep<T, R>> steps;
+  private final Queue<FramePipelineStep<T, R>> idle;
+  private final int parallelism;
+  private final Executor executor;
+  private final Queue<CompletableFuture<R>> queue;
+  private final AtomicInteger draining;
+
+  private int outstanding;
+  private volatile boolean done;
+  private volatile Throwable error;
+  private volatile boolean terminated;
+
+  public ParallelMapProcessor(
+      final Supplier<? extends FramePipelineStep<T, R>> steps, final int parallelism) {
+    this(steps, parallelism, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a parallel map.
+   *
+   * @param steps creates the step of a worker; called at most {@code parallelism} times
+   * @param parallelism how many frames may be processed at once
+   * @param executor runs the workers
+   */
+  public ParallelMapProcessor(
+      final Supplier<? extends FramePipelineStep<T, R>> steps,
+      final int parallelism,
+      final Executor executor) {
+    checkNotNull(steps, "Step supplier cannot be null!");
+    checkArgument(parallelism > 0, "Parallelism must be positive!");
+    checkNotNull(executor, "Executor cannot be null!");
+    this.steps = steps;
+    this.idle = new ConcurrentLinkedQueue<>();
+    this.parallelism = parallelism;
+    this.executor = executor;
+    this.queue = new ArrayDeque<>(parallelism);
+    this.draining = new AtomicInteger();
+  }
+
+  @Override
+  void onRequest() {
+    this.drain();
+  }
+
+  @Override
+  void onCancel() {
+    super.onCancel();
+    this.drain();
+  }
+
+  @Override
+  public void onNext(final T item) {
+    final FrameSubscription<R> downstream = this.getDownstream();
+    if (this.terminated || downstream == null || downstream.isCancelled()) {
+      FrameSubscription.release(item);
+      return;
+    }
+    final T detached = FrameSubscription.detach(item);
+    final CompletableFuture<R> future =
+        CompletableFuture.supplyAsync(() -> this.apply(detached), this.executor);
+    synchronized (this) {
+      this.outstanding--;
+      this.queue.add(future);
+    }
+    future.whenComplete((result, error) -> this.drain());
+  }
+
+  private R apply(final T item) {
+    FramePipelineStep<T, R> step = this.idle.poll();
+    if (step == null) {
+      step = checkNotNull(this.steps.get(), "Step supplier returned null!");
+    }
+    final R result;
+    try {
+      result = step.process(item);
+    } catch (final RuntimeException e) {
+      FrameSubscription.release(item);
+      throw e;
+    } finally {
+      this.idle.offer(step);
+    }
+    if (result != item) {
+      FrameSubscription.release(item);
+    }
+    return result;
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    this.error = throwable;
+    this.done = true;
+    this.drain();
+  }
+
+  @Override
+  public void onComplete() {
+    this.done = true;
+    this.drain();
+  }
+
+  private void drain() {
+    if (this.draining.getAndIncrement() != 0) {
+      return;
+    }
+    do {
+      this.emit();
+      this.pull();
+    } while (this.draining.decrementAndGet() != 0);
+  }
+
+  private void emit() {
+    final FrameSubscription<R> downstream = this.getDownstream();
+    if (downstream == null) {
+      return;
+    }
+    while (true) {
+      final CompletableFuture<R> head;
+      synchronized (this) {
+        head = this.queue.peek();
+      }
+      if (head == null || !head.isDone()) {
+        break;
+      }
+      if (this.terminated || downstream.isCancelled()) {
+        this.poll();
+        if (!head.isCompletedExceptionally()) {
+          FrameSubscription.release(head.join());
+        }
+        continue;
+      }
+      final R result;
+      try {
+        result = head.join();
+      } catch (final CompletionException e) {
+        this.poll();
+        this.fail(downstream, e.getCause());
+        continue;
+      }
+      if (result == null) {
+        this.poll();
+        continue;
+      }
+      if (!downstream.tryConsume()) {
+        break;
+      }
+      this.poll();
+      try {
+        downstream.getSubscriber().onNext(result);
+      } catch (final RuntimeException e) {
+        downstream.cancel();
+        FrameSubscription.reportError(e);
+      }
+    }
+    final boolean empty;
+    synchronized (this) {
+      empty = this.queue.isEmpty();
+    }
+    if (this.done && empty && !this.terminated && !downstream.isCancelled()) {
+      this.terminated = true;
+      final Throwable error = this.error;
+      if (error == null) {
+        downstream.getSubscriber().onComplete();
+      } else {
+        downstream.getSubscriber().onError(error);
+      }
+    }
+  }
+
+  private void fail(final FrameSubscription<R> downstream, final Throwable error) {
+    this.terminated = true;
+    super.onCancel();
+    downstream.getSubscriber().onError(error);
+  }
+
+  private void pull() {
+    final FrameSubscription<R> downstream = this.getDownstream();
+    if (this.done
+        || this.terminated
+        || this.getUpstream() == null
+        || downstream == null
+        || !downstream.hasDemand()) {
+      return;
+    }
+    final int count;
+    synchronized (this) {
+      count = this.parallelism - this.outstanding - this.queue.size();
+      if (count <= 0) {
+        return;
+      }
+      this.outstanding += count;
+    }
+    this.requestUpstream(count);
+  }
+
+  private synchronized void poll() {
+    this.queue.poll();
+  }
+
+  public int getParallelism() {
+    return this.parallelism;
+  }
+}
@@ -0,0 +1,101 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.flow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits a flow to a frame rate. Only one frame is requested from upstream at a time, and not
+ * before the frame interval has passed since the last one, so a grabber feeding the flow sees no
+ * demand between frames and skips them instead of converting them to be thrown away.
+ */
+public final class ThrottleProcessor<T> extends FrameProcessor<T, T> {
+
+  private final long interval;
+  private final AtomicLong delivered;
+
+  private boolean pending;
+  private long next;
+
+  public ThrottleProcessor(final double fps) {
+    checkArgument(fps > 0, "Frame rate must be positive!");
+    this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / fps);
+    this.delivered = new AtomicLong();
+  }
+
+  @Override
+  void onRequest() {
+    this.pull();
+  }
+
+  private void pull() {
+    final long delay;
+    synchronized (this) {
+      final FrameSubscription<T> downstream = this.getDownstream();
+      if (this.pending
+          || this.getUpstream() == null
+          || downstream == null
+          || !downstream.hasDemand()) {
+        return;
+      }
+      this.pending = true;
+      delay = this.next - System.nanoTime();
+    }
+    if (delay <= 0) {
+      this.requestUpstream(1);
+      return;
+    }
+    CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+        .execute(() -> this.requestUpstream(1));
+  }
+
+  @Override
+  public void onNext(final T item) {
+    final FrameSubscription<T> downstream;
+    synchronized (this) {
+      this.pending = false;
+      this.next = System.nanoTime() + this.interval;
+      downstream = this.getDownstream();
+    }
+    if (downstream == null || !downstream.tryConsume()) {
+      FrameSubscription.release(item);
+      return;
+    }
+    this.delivered.incrementAndGet();
+    try {
+      downstream.getSubscriber().onNext(item);
+    } catch (final RuntimeException e) {
+      downstream.cancel();
+      FrameSubscription.reportError(e);
+      return;
+    }
+    this.pull();
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    final FrameSubscription<T> downstream = this.getDownstream();
+    if (downstream != null && !downstream.isCancelled()) {
+      downstream.getSubscriber().onError(throwable);
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    final FrameSubscription<T> downstream = this.getDownstream();
+    if (downstream != null && !downstream.isCancelled()) {
+      downstream.getSubscriber().onComplete();
+    }
+  }
+
+  /**
+   * Returns how many frames were let through.
+   *
+   * @return the number of delivered frames
+   */
+  public long getDeliveredFrames() {
+    return this.delivered.get();
+  }
+}
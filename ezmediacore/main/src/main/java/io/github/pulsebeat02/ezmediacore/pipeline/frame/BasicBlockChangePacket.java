@@ -0,0 +1,82 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+public class BasicBlockChangePacket implements BlockChangePacket, PooledPacket {
+
+  private final FramePacket source;
+  private final BlockChangeMask mask;
+
+  BasicBlockChangePacket(final FramePacket source, final BlockChangeMask mask) {
+    this.source = source.retain();
+    this.mask = mask;
+  }
+
+  public static BlockChangePacket create(final FramePacket packet, final BlockChangeMask mask) {
+    if (packet instanceof final NativeFramePacket nativePacket) {
+      return new NativeBlockChangePacket(nativePacket, mask);
+    }
+    return new BasicBlockChangePacket(packet, mask);
+  }
+
+  @Override
+  public FramePacket detach() {
+    final FramePacket detached = this.source.detach();
+    if (detached == this.source) {
+      return this;
+    }
+    final BlockChangePacket packet = create(detached, this.mask);
+    detached.release();
+    return packet;
+  }
+
+  /** The wrapper holds one reference to its source, so references are counted on the source. */
+  @Override
+  public FramePacket retain() {
+    this.source.retain();
+    return this;
+  }
+
+  @Override
+  public boolean release() {
+    return this.source.release();
+  }
+
+  @Override
+  public FramePacketPool getPool() {
+    return this.source instanceof final PooledPacket pooled ? pooled.getPool() : null;
+  }
+
+  @Override
+  public BlockChangeMask getChangeMask() {
+    return this.mask;
+  }
+
+  @Override
+  public int[] getRGBSamples() {
+    return this.source.getRGBSamples();
+  }
+
+  @Override
+  public byte[] getAudioSamples() {
+    return this.source.getAudioSamples();
+  }
+
+  @Override
+  public int getImageWidth() {
+    return this.source.getImageWidth();
+  }
+
+  @Override
+  public int getImageHeight() {
+    return this.source.getImageHeight();
+  }
+
+  @Override
+  public Object getMetadata() {
+    return this.source.getMetadata();
+  }
+
+  @Override
+  public FrameTiming getTiming() {
+    return this.source.getTiming();
+  }
+}
@@ -7,14 +7,21 @@ public class BasicFramePacket implements FramePacket {
   private final int width;
   private final int height;
   private final Object metadata;
+  private final FrameTiming timing;
 
   public BasicFramePacket(final int[] rgbSamples, final byte[] audioSamples
       , final int width, final int height, final Object metadata) {
+    this(rgbSamples, audioSamples, width, height, metadata, FrameTiming.UNTIMED);
+  }
+
+  public BasicFramePacket(final int[] rgbSamples, final byte[] audioSamples
+      , final int width, final int height, final Object metadata, final FrameTiming timing) {
     this.rgbSamples = rgbSamples;
     this.audioSamples = audioSamples;
     this.width = width;
     this.height = height;
     this.metadata = metadata;
+    this.timing = timing;
   }
 
   @Override
@@ -39,6 +46,11 @@ public class BasicFramePacket implements FramePacket {
 
   @Override
   public Object getMetadata() {
-    return null;
+    return this.metadata;
+  }
+
+  @Override
+  public FrameTiming getTiming() {
+    return this.timing;
   }
 }
@@ -0,0 +1,153 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.util.graphics.FrameUtils;
+import java.lang.foreign.MemorySegment;
+import org.bytedeco.javacv.Frame;
+
+public class BasicNativeFramePacket implements NativeFramePacket {
+
+  private final MemorySegment pixels;
+  private final int stride;
+  private final PixelLayout layout;
+  private final byte[] audioSamples;
+  private final int width;
+  private final int height;
+  private final Object metadata;
+  private final FrameTiming timing;
+  private final boolean detached;
+  private final long offset;
+
+  private int[] rgbSamples;
+
+  public BasicNativeFramePacket(
+      final MemorySegment pixels,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] audioSamples,
+      final int width,
+      final int height,
+      final Object metadata) {
+    this(pixels, stride, layout, audioSamples, width, height, metadata, FrameTiming.UNTIMED);
+  }
+
+  public BasicNativeFramePacket(
+      final MemorySegment pixels,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] audioSamples,
+      final int width,
+      final int height,
+      final Object metadata,
+      final FrameTiming timing) {
+    this(pixels, stride, layout, audioSamples, width, height, metadata, timing, false, 0);
+  }
+
+  private BasicNativeFramePacket(
+      final MemorySegment pixels,
+      final int stride,
+      final PixelLayout layout,
+      final byte[] audioSamples,
+      final int width,
+      final int height,
+      final Object metadata,
+      final FrameTiming timing,
+      final boolean detached,
+      final long offset) {
+    this.pixels = pixels;
+    this.stride = stride;
+    this.layout = layout;
+    this.audioSamples = audioSamples;
+    this.width = width;
+    this.height = height;
+    this.metadata = metadata;
+    this.timing = timing;
+    this.detached = detached;
+    this.offset = offset;
+  }
+
+  @Override
+  public FramePacket detach() {
+    if (this.detached) {
+      return this;
+    }
+    if (this.metadata instanceof final Frame frame) {
+      final Frame copy = frame.clone();
+      final MemorySegment pixels = FrameUtils.getPixelSegment(copy).asSlice(this.offset, this.pixels.byteSize());
+      return new BasicNativeFramePacket(pixels, this.stride, this.layout, this.audioSamples, this.width, this.height, copy, this.timing, true, this.offset);
+    }
+    final MemorySegment pixels = MemorySegment.ofArray(new byte[(int) this.pixels.byteSize()]);
+    pixels.copyFrom(this.pixels);
+    return new BasicNativeFramePacket(pixels, this.stride, this.layout, this.audioSamples, this.width, this.height, this.metadata, this.timing, true, 0);
+  }
+
+  /**
+   * Returns a packet showing a rectangle of this frame. No pixels are copied: the new packet reads
+   * the same frame buffer with the same stride, and is valid for as long as this one is.
+   *
+   * @param x the left edge of the rectangle
+   * @param y the top edge of the rectangle
+   * @param width the width of the rectangle
+   * @param height the height of the rectangle
+   * @return the cropped packet
+   */
+  public BasicNativeFramePacket crop(final int x, final int y, final int width, final int height) {
+    checkArgument(x >= 0 && y >= 0 && width > 0 && height > 0, "Invalid crop rectangle!");
+    checkArgument(x + width <= this.width && y + height <= this.height, "Crop exceeds the frame!");
+    final int bytesPerPixel = this.layout.getBytesPerPixel();
+    final long start = (long) y * this.stride + (long) x * bytesPerPixel;
+    final long size = (long) (height - 1) * this.stride + (long) width * bytesPerPixel;
+    final MemorySegment pixels = this.pixels.asSlice(start, size);
+    return new BasicNativeFramePacket(pixels, this.stride, this.layout, this.audioSamples, width, height, this.metadata, this.timing, this.detached, this.offset + start);
+  }
+
+  @Override
+  public int[] getRGBSamples() {
+    if (this.rgbSamples == null) {
+      this.rgbSamples = this.layout.unpack(this.pixels, this.width, this.height, this.stride);
+    }
+    return this.rgbSamples;
+  }
+
+  @Override
+  public MemorySegment getPixelSegment() {
+    return this.pixels;
+  }
+
+  @Override
+  public int getStride() {
+    return this.stride;
+  }
+
+  @Override
+  public PixelLayout getPixelLayout() {
+    return this.layout;
+  }
+
+  @Override
+  public byte[] getAudioSamples() {
+    return this.audioSamples;
+  }
+
+  @Override
+  public int getImageWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getImageHeight() {
+    return this.height;
+  }
+
+  @Override
+  public Object getMetadata() {
+    return this.metadata;
+  }
+
+  @Override
+  public FrameTiming getTiming() {
+    return this.timing;
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+/**
+ * Marks which square blocks of a frame differ from the frame before it. Masks are numbered in the
+ * order they were produced, so a consumer can tell whether it saw the frame a mask was compared
+ * against.
+ */
+public final class BlockChangeMask {
+
+  private final int blockSize;
+  private final int columns;
+  private final int rows;
+  private final long sequence;
+  private final boolean[] dirty;
+  private final int dirtyBlocks;
+
+  public BlockChangeMask(final int blockSize, final int columns, final int rows, final long sequence, final boolean[] dirty) {
+    this.blockSize = blockSize;
+    this.columns = columns;
+    this.rows = rows;
+    this.sequence = sequence;
+    this.dirty = dirty;
+    this.dirtyBlocks = countDirty(dirty);
+  }
+
+  private static int countDirty(final boolean[] dirty) {
+    int count = 0;
+    for (final boolean block : dirty) {
+      if (block) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public boolean isDirty(final int column, final int row) {
+    return this.dirty[row * this.columns + column];
+  }
+
+  public boolean isClean() {
+    return this.dirtyBlocks == 0;
+  }
+
+  public int getDirtyBlocks() {
+    return this.dirtyBlocks;
+  }
+
+  public int getBlockSize() {
+    return this.blockSize;
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public long getSequence() {
+    return this.sequence;
+  }
+}
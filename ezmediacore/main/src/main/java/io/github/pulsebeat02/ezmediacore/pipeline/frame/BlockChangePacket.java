@@ -0,0 +1,6 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+public interface BlockChangePacket extends FramePacket {
+
+  BlockChangeMask getChangeMask();
+}
@@ -1,8 +1,13 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.frame;
 
-public final class DitheredFramePacket extends BasicFramePacket implements DitheredPacket {
+import java.util.concurrent.atomic.AtomicInteger;
 
+public final class DitheredFramePacket implements DitheredPacket, PooledPacket {
+
+  private final FramePacket source;
   private final byte[] mapDitheredSamples;
+  private final FramePacketPool pool;
+  private final AtomicInteger references;
 
   public DitheredFramePacket(
           final int[] rgbSamples,
@@ -11,21 +16,109 @@ public final class DitheredFramePacket extends BasicFramePacket implements Dithe
           final int height,
           final Object javaCVFrame,
           final byte[] mapDitheredSamples) {
-    super(rgbSamples, audioSamples, width, height, javaCVFrame);
+    this(new BasicFramePacket(rgbSamples, audioSamples, width, height, javaCVFrame), mapDitheredSamples, null);
+  }
+
+  private DitheredFramePacket(
+      final FramePacket source, final byte[] mapDitheredSamples, final FramePacketPool pool) {
+    this.source = source.retain();
     this.mapDitheredSamples = mapDitheredSamples;
+    this.pool = pool;
+    this.references = new AtomicInteger(1);
   }
 
   public static DitheredFramePacket create(final FramePacket packet, final byte[] dithered) {
-    final int[] rgbSamples = packet.getRGBSamples();
-    final byte[] audioSamples = packet.getAudioSamples();
-    final int imageWidth = packet.getImageWidth();
-    final int imageHeight = packet.getImageHeight();
-    final Object javaCVFrame = packet.getMetadata();
-    return new DitheredFramePacket(rgbSamples, audioSamples, imageWidth, imageHeight, javaCVFrame, dithered);
+    return new DitheredFramePacket(packet, dithered, null);
+  }
+
+  /**
+   * Wraps a packet with dithered samples that were acquired from {@code pool}. The array is handed
+   * back to the pool once the returned packet is released.
+   */
+  public static DitheredFramePacket create(
+      final FramePacket packet, final byte[] dithered, final FramePacketPool pool) {
+    return new DitheredFramePacket(packet, dithered, pool);
+  }
+
+  @Override
+  public FramePacket detach() {
+    final FramePacket detached = this.source.detach();
+    if (detached == this.source) {
+      return this;
+    }
+    final byte[] samples =
+        this.pool == null ? this.mapDitheredSamples : this.mapDitheredSamples.clone();
+    final DitheredFramePacket packet = new DitheredFramePacket(detached, samples, null);
+    detached.release();
+    return packet;
+  }
+
+  @Override
+  public FramePacket retain() {
+    if (this.references.getAndIncrement() <= 0) {
+      this.references.getAndDecrement();
+      throw new IllegalStateException("Packet has already been released!");
+    }
+    return this;
+  }
+
+  @Override
+  public boolean release() {
+    final int remaining = this.references.decrementAndGet();
+    if (remaining < 0) {
+      this.references.getAndIncrement();
+      throw new IllegalStateException("Packet has already been released!");
+    }
+    if (remaining > 0) {
+      return false;
+    }
+    this.source.release();
+    if (this.pool != null) {
+      this.pool.recycle(this.mapDitheredSamples);
+    }
+    return true;
+  }
+
+  @Override
+  public FramePacketPool getPool() {
+    if (this.pool != null) {
+      return this.pool;
+    }
+    return this.source instanceof final PooledPacket pooled ? pooled.getPool() : null;
   }
 
   @Override
   public byte[] getMapDitheredSamples() {
     return this.mapDitheredSamples;
   }
+
+  @Override
+  public int[] getRGBSamples() {
+    return this.source.getRGBSamples();
+  }
+
+  @Override
+  public byte[] getAudioSamples() {
+    return this.source.getAudioSamples();
+  }
+
+  @Override
+  public int getImageWidth() {
+    return this.source.getImageWidth();
+  }
+
+  @Override
+  public int getImageHeight() {
+    return this.source.getImageHeight();
+  }
+
+  @Override
+  public Object getMetadata() {
+    return this.source.getMetadata();
+  }
+
+  @Override
+  public FrameTiming getTiming() {
+    return this.source.getTiming();
+  }
 }
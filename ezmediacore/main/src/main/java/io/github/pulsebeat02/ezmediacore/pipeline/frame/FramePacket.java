@@ -11,4 +11,50 @@ public interface FramePacket {
   int getImageHeight();
 
   Object getMetadata();
+
+  /**
+   * Returns the presentation timestamp and deadline of this frame. Stages drop frames whose
+   * deadline has passed instead of processing them.
+   *
+   * @return the timing, {@link FrameTiming#UNTIMED} if unknown
+   */
+  default FrameTiming getTiming() {
+    return FrameTiming.UNTIMED;
+  }
+
+  default boolean isLate() {
+    return this.getTiming().isLate();
+  }
+
+  /**
+   * Returns a packet that stays valid after the grabber has moved on to the next frame. Packets
+   * that only reference heap data return themselves; packets backed by the decoder's buffers copy
+   * them.
+   *
+   * @return a packet safe to hand to another thread
+   */
+  default FramePacket detach() {
+    return this;
+  }
+
+  /**
+   * Adds a reference to the packet. Whoever hands a packet to the pipeline passes its reference
+   * on; the pipeline releases it once every output has seen the packet. An output that keeps the
+   * packet past {@code output} must retain it and release it when done.
+   *
+   * @return this packet
+   */
+  default FramePacket retain() {
+    return this;
+  }
+
+  /**
+   * Drops a reference to the packet. Once the last reference is gone, pooled buffers are recycled
+   * and must no longer be read.
+   *
+   * @return whether this call dropped the last reference
+   */
+  default boolean release() {
+    return false;
+  }
 }
@@ -0,0 +1,140 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.logging.Logger;
+import java.lang.ref.Cleaner;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles the sample arrays of released packets, keyed by length, and reports packets that are
+ * garbage collected without ever being released.
+ */
+public final class FramePacketPool {
+
+  public static final int DEFAULT_ARRAYS_PER_SIZE = 8;
+
+  private static final Cleaner CLEANER = Cleaner.create();
+  private static final FramePacketPool UNPOOLED = new FramePacketPool(0);
+
+  private final int arraysPerSize;
+  private final Map<Integer, ArrayBlockingQueue<int[]>> ints;
+  private final Map<Integer, ArrayBlockingQueue<byte[]>> bytes;
+  private final AtomicLong outstanding;
+  private final AtomicLong leaks;
+
+  private volatile Logger logger;
+
+  public FramePacketPool() {
+    this(DEFAULT_ARRAYS_PER_SIZE);
+  }
+
+  public FramePacketPool(final int arraysPerSize) {
+    checkArgument(arraysPerSize >= 0, "Arrays per size must not be negative!");
+    this.arraysPerSize = arraysPerSize;
+    this.ints = new ConcurrentHashMap<>();
+    this.bytes = new ConcurrentHashMap<>();
+    this.outstanding = new AtomicLong();
+    this.leaks = new AtomicLong();
+  }
+
+  public static FramePacketPool unpooled() {
+    return UNPOOLED;
+  }
+
+  public PooledFramePacket createPacket(
+      final int[] rgbSamples, final byte[] audioSamples, final int width, final int height, final Object metadata) {
+    return this.createPacket(rgbSamples, audioSamples, width, height, metadata, FrameTiming.UNTIMED);
+  }
+
+  public PooledFramePacket createPacket(
+      final int[] rgbSamples,
+      final byte[] audioSamples,
+      final int width,
+      final int height,
+      final Object metadata,
+      final FrameTiming timing) {
+    return new PooledFramePacket(this, rgbSamples, audioSamples, width, height, metadata, timing);
+  }
+
+  public int[] acquireInts(final int length) {
+    final ArrayBlockingQueue<int[]> queue = this.arraysPerSize == 0 ? null : this.ints.get(length);
+    final int[] array = queue == null ? null : queue.poll();
+    return array == null ? new int[length] : array;
+  }
+
+  public byte[] acquireBytes(final int length) {
+    final ArrayBlockingQueue<byte[]> queue = this.arraysPerSize == 0 ? null : this.bytes.get(length);
+    final byte[] array = queue == null ? null : queue.poll();
+    return array == null ? new byte[length] : array;
+  }
+
+  public void recycle(final int[] array) {
+    if (array != null && this.arraysPerSize > 0) {
+      this.ints.computeIfAbsent(array.length, length -> new ArrayBlockingQueue<>(this.arraysPerSize)).offer(array);
+    }
+  }
+
+  public void recycle(final byte[] array) {
+    if (array != null && this.arraysPerSize > 0) {
+      this.bytes.computeIfAbsent(array.length, length -> new ArrayBlockingQueue<>(this.arraysPerSize)).offer(array);
+    }
+  }
+
+  LeakTracker track(final Object packet) {
+    this.outstanding.incrementAndGet();
+    final LeakTracker tracker = new LeakTracker(this, packet.getClass().getSimpleName());
+    tracker.cleanable = CLEANER.register(packet, tracker);
+    return tracker;
+  }
+
+  private void reportLeak(final String type) {
+    this.leaks.incrementAndGet();
+    final Logger logger = this.logger;
+    if (logger != null) {
+      logger.warn("%s was garbage collected without being released; its buffers were not recycled".formatted(type));
+    }
+  }
+
+  public void setLogger(final Logger logger) {
+    this.logger = logger;
+  }
+
+  public long getOutstandingPackets() {
+    return this.outstanding.get();
+  }
+
+  public long getLeakedPackets() {
+    return this.leaks.get();
+  }
+
+  static final class LeakTracker implements Runnable {
+
+    private final FramePacketPool pool;
+    private final String type;
+
+    private volatile boolean released;
+    private Cleaner.Cleanable cleanable;
+
+    private LeakTracker(final FramePacketPool pool, final String type) {
+      this.pool = pool;
+      this.type = type;
+    }
+
+    void close() {
+      this.released = true;
+      this.cleanable.clean();
+    }
+
+    @Override
+    public void run() {
+      this.pool.outstanding.decrementAndGet();
+      if (!this.released) {
+        this.pool.reportLeak(this.type);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+/**
+ * When a frame should be shown. The timestamp is the decoder's presentation timestamp in
+ * microseconds; the deadline is a {@link System#nanoTime()} instant after which the frame is too
+ * late to be worth finishing.
+ */
+public final class FrameTiming {
+
+  public static final FrameTiming UNTIMED = new FrameTiming(-1, Long.MAX_VALUE);
+  public static final int DEFAULT_TOLERANCE_FRAMES = 2;
+
+  private final long timestamp;
+  private final long deadline;
+
+  private FrameTiming(final long timestamp, final long deadline) {
+    this.timestamp = timestamp;
+    this.deadline = deadline;
+  }
+
+  public static FrameTiming of(final long timestamp, final long deadline) {
+    return new FrameTiming(timestamp, deadline);
+  }
+
+  /**
+   * Creates the timing of a frame that is due now and may be at most {@link
+   * #DEFAULT_TOLERANCE_FRAMES} frame intervals late. Only sources that pace themselves against a
+   * clock should use this; decoders should take the timing from a {@link PlaybackClock}, or frames
+   * decoded late are never dropped.
+   *
+   * @param timestamp the presentation timestamp in microseconds
+   * @param frameRate the stream's frame rate, or 0 if unknown
+   * @return the timing
+   */
+  public static FrameTiming fromFrameRate(final long timestamp, final double frameRate) {
+    return fromFrameRate(timestamp, frameRate, DEFAULT_TOLERANCE_FRAMES);
+  }
+
+  public static FrameTiming fromFrameRate(final long timestamp, final double frameRate, final int tolerance) {
+    if (!(frameRate > 0)) {
+      return new FrameTiming(timestamp, Long.MAX_VALUE);
+    }
+    final long budget = (long) (tolerance * 1_000_000_000.0 / frameRate);
+    return new FrameTiming(timestamp, System.nanoTime() + budget);
+  }
+
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  public long getDeadline() {
+    return this.deadline;
+  }
+
+  public boolean hasDeadline() {
+    return this.deadline != Long.MAX_VALUE;
+  }
+
+  public boolean isLate() {
+    return this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline > 0;
+  }
+
+  public long getRemainingNanos() {
+    return this.deadline == Long.MAX_VALUE ? Long.MAX_VALUE : this.deadline - System.nanoTime();
+  }
+}
@@ -0,0 +1,29 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import java.lang.foreign.MemorySegment;
+
+public final class NativeBlockChangePacket extends BasicBlockChangePacket implements NativeFramePacket {
+
+  private final NativeFramePacket source;
+
+  NativeBlockChangePacket(final NativeFramePacket source, final BlockChangeMask mask) {
+    super(source, mask);
+    this.source = source;
+  }
+
+  @Override
+  public MemorySegment getPixelSegment() {
+    return this.source.getPixelSegment();
+  }
+
+  @Override
+  public int getStride() {
+    return this.source.getStride();
+  }
+
+  @Override
+  public PixelLayout getPixelLayout() {
+    return this.source.getPixelLayout();
+  }
+}
@@ -0,0 +1,17 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * A packet whose pixels still live in the decoder's frame buffer. The segment is only valid while
+ * the packet is being processed; the grabber reuses it for the next frame.
+ */
+public interface NativeFramePacket extends FramePacket {
+
+  MemorySegment getPixelSegment();
+
+  int getStride();
+
+  PixelLayout getPixelLayout();
+}
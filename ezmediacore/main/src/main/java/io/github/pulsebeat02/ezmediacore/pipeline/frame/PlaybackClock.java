@@ -0,0 +1,46 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+/**
+ * Maps presentation timestamps onto {@link System#nanoTime()}. The first frame after a reset
+ * anchors the clock; every later frame is due when as much time has passed since then as its
+ * timestamp is past the first one. A frame that is decoded late therefore gets a deadline that
+ * has already (nearly) passed, so the pipeline drops frames until video catches up with the
+ * clock. Grabbers reset the clock whenever playback starts, resumes or seeks.
+ */
+public final class PlaybackClock {
+
+  private volatile boolean anchored;
+  private long startNanos;
+  private long firstTimestamp;
+
+  /** Re-anchors the clock on the next frame. */
+  public void reset() {
+    this.anchored = false;
+  }
+
+  /**
+   * Returns the timing of a frame, which may be at most {@link
+   * FrameTiming#DEFAULT_TOLERANCE_FRAMES} frame intervals behind the clock.
+   *
+   * @param timestamp the presentation timestamp in microseconds, negative if unknown
+   * @param frameRate the stream's frame rate, or 0 if unknown
+   * @return the timing
+   */
+  public FrameTiming getTiming(final long timestamp, final double frameRate) {
+    return this.getTiming(timestamp, frameRate, FrameTiming.DEFAULT_TOLERANCE_FRAMES);
+  }
+
+  public FrameTiming getTiming(final long timestamp, final double frameRate, final int tolerance) {
+    if (timestamp < 0 || !(frameRate > 0)) {
+      return FrameTiming.fromFrameRate(timestamp, frameRate, tolerance);
+    }
+    if (!this.anchored) {
+      this.startNanos = System.nanoTime();
+      this.firstTimestamp = timestamp;
+      this.anchored = true;
+    }
+    final long due = this.startNanos + (timestamp - this.firstTimestamp) * 1000;
+    final long budget = (long) (tolerance * 1_000_000_000.0 / frameRate);
+    return FrameTiming.of(timestamp, due + budget);
+  }
+}
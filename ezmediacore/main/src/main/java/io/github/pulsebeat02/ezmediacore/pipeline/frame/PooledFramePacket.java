@@ -0,0 +1,99 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class PooledFramePacket implements PooledPacket {
+
+  private final FramePacketPool pool;
+  private final int[] rgbSamples;
+  private final byte[] audioSamples;
+  private final int width;
+  private final int height;
+  private final Object metadata;
+  private final FrameTiming timing;
+  private final AtomicInteger references;
+  private final FramePacketPool.LeakTracker tracker;
+
+  PooledFramePacket(
+      final FramePacketPool pool,
+      final int[] rgbSamples,
+      final byte[] audioSamples,
+      final int width,
+      final int height,
+      final Object metadata,
+      final FrameTiming timing) {
+    this.pool = pool;
+    this.rgbSamples = rgbSamples;
+    this.audioSamples = audioSamples;
+    this.width = width;
+    this.height = height;
+    this.metadata = metadata;
+    this.timing = timing;
+    this.references = new AtomicInteger(1);
+    this.tracker = pool.track(this);
+  }
+
+  @Override
+  public FramePacket retain() {
+    if (this.references.getAndIncrement() <= 0) {
+      this.references.getAndDecrement();
+      throw new IllegalStateException("Packet has already been released!");
+    }
+    return this;
+  }
+
+  @Override
+  public boolean release() {
+    final int remaining = this.references.decrementAndGet();
+    if (remaining < 0) {
+      this.references.getAndIncrement();
+      throw new IllegalStateException("Packet has already been released!");
+    }
+    if (remaining > 0) {
+      return false;
+    }
+    this.pool.recycle(this.rgbSamples);
+    this.pool.recycle(this.audioSamples);
+    this.tracker.close();
+    return true;
+  }
+
+  public int getReferenceCount() {
+    return this.references.get();
+  }
+
+  @Override
+  public FramePacketPool getPool() {
+    return this.pool;
+  }
+
+  @Override
+  public int[] getRGBSamples() {
+    return this.rgbSamples;
+  }
+
+  @Override
+  public byte[] getAudioSamples() {
+    return this.audioSamples;
+  }
+
+  @Override
+  public int getImageWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getImageHeight() {
+    return this.height;
+  }
+
+  @Override
+  public Object getMetadata() {
+    return this.metadata;
+  }
+
+  @Override
+  public FrameTiming getTiming() {
+    return this.timing;
+  }
+}
@@ -0,0 +1,11 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.frame;
+
+public interface PooledPacket extends FramePacket {
+
+  /**
+   * Returns the pool this packet's buffers came from, or {@code null} if they were not pooled.
+   *
+   * @return the pool
+   */
+  FramePacketPool getPool();
+}
@@ -2,5 +2,13 @@ package io.github.pulsebeat02.ezmediacore.pipeline.grabbers;
 
 @FunctionalInterface
 public interface FrameGrabberSource<O> {
+
+  /**
+   * Converts the current frame, runs it through the pipeline and returns it. The pipeline releases
+   * its own reference once every output has seen the frame; the returned packet carries a separate
+   * reference, so its buffers stay valid until the caller releases it, which the caller must do.
+   *
+   * @return the frame, or {@code null} if there is none
+   */
   O grabOutputFrame();
 }
@@ -1,11 +1,19 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.grabbers.ffmpeg;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import org.bytedeco.ffmpeg.global.avcodec;
 import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacv.*;
+import io.github.pulsebeat02.ezmediacore.dimension.Resolution;
+import io.github.pulsebeat02.ezmediacore.metrics.Counter;
+import io.github.pulsebeat02.ezmediacore.metrics.FrameDecodeEvent;
+import io.github.pulsebeat02.ezmediacore.metrics.Timer;
 import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FrameTiming;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.PlaybackClock;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberAudioFormat;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberPlayer;
 import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
@@ -25,6 +33,7 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
   private final FramePipelineResult result;
   private final ExecutorService executor;
   private final Collection<Input> sources;
+  private final PlaybackClock clock;
 
   private volatile FFmpegFrameGrabber videoGrabber;
   private volatile FFmpegFrameGrabber audioGrabber;
@@ -34,6 +43,8 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
   private volatile int channels;
   private volatile boolean paused;
   private volatile Frame captured;
+  private volatile Resolution resolution;
+  private volatile ScalingAlgorithm scaling;
 
   public FFmpegDualFrameGrabber(final FramePipelineResult result) {
     this(result, Executors.newSingleThreadExecutor());
@@ -41,8 +52,22 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
 
   public FFmpegDualFrameGrabber(final FramePipelineResult result, final ExecutorService executor) {
     this.sources = new ArrayList<>();
+    this.clock = new PlaybackClock();
     this.result = result;
     this.executor = executor;
+    this.scaling = ScalingAlgorithm.AREA;
+  }
+
+  /**
+   * Makes the decoder scale frames to the given size, so the pipeline never sees frames larger
+   * than the output. Takes effect the next time playback starts.
+   *
+   * @param resolution the size of the frames, or {@code null} to keep the source size
+   * @param algorithm the algorithm to scale with
+   */
+  public void setResolution(final Resolution resolution, final ScalingAlgorithm algorithm) {
+    this.resolution = resolution;
+    this.scaling = checkNotNull(algorithm, "Scaling algorithm cannot be null!");
   }
 
   @Override
@@ -75,8 +100,9 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
 
   private void createVideoGrabber(final Map<String, String> arguments, final String video) throws FFmpegFrameGrabber.Exception {
     this.videoGrabber = new FFmpegFrameGrabber(video);
-    this.videoGrabber.setPixelFormat(avutil.AV_PIX_FMT_BGR32);
-    this.audioGrabber.setOptions(arguments);
+    this.videoGrabber.setPixelFormat(avutil.AV_PIX_FMT_BGRA);
+    this.scaling.configure(this.videoGrabber, this.resolution);
+    this.videoGrabber.setOptions(arguments);
     this.videoGrabber.start();
     this.width = this.videoGrabber.getImageWidth();
     this.height = this.videoGrabber.getImageHeight();
@@ -98,25 +124,41 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
     this.filter = new FFmpegFrameFilter(FFMPEG_FILTER_FORMAT, this.channels);
     this.filter.setAudioInputs(1);
     this.filter.setVideoInputs(1);
+    this.filter.setPixelFormat(avutil.AV_PIX_FMT_BGRA);
     this.filter.start();
   }
 
   private void consumeFrames() {
+    this.clock.reset();
     CompletableFuture.runAsync(this::grabCurrentFrame, this.executor);
   }
 
   private void grabCurrentFrame() {
+    final Timer decode = this.result.getMetrics().timer("grabber.ffmpeg-dual.decode");
+    final Counter skipped = this.result.getMetrics().counter("grabber.ffmpeg-dual.skipped");
+    long frame = 0;
     while (true) {
       try {
         if (this.paused) {
           break;
         }
+        final FrameDecodeEvent event = new FrameDecodeEvent();
+        final long start = decode.start();
+        event.begin();
         final Frame video = this.videoGrabber.grabAtFrameRate();
         final Frame audio = this.audioGrabber.grabAtFrameRate();
         this.filter.push(0, video);
         this.filter.push(1, audio);
         this.captured = this.filter.pull();
-        this.grabOutputFrame();
+        decode.stop(start);
+        event.end();
+        frame++;
+        FrameUtils.commitDecodeEvent(event, "ffmpeg-dual", frame, this.captured);
+        if (this.result.hasDemand()) {
+          this.grabOutputFrame().release();
+        } else {
+          skipped.increment();
+        }
       } catch (final InterruptedException | FrameGrabber.Exception | FFmpegFrameFilter.Exception e) {
         throw new AssertionError(e);
       }
@@ -149,6 +191,7 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
     try {
       if (this.audioGrabber != null) {
         this.audioGrabber.setTimestamp(position);
+        this.clock.reset();
       }
     } catch (final FFmpegFrameGrabber.Exception e) {
       throw new AssertionError(e);
@@ -181,6 +224,10 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
     }
   }
 
+  private FrameTiming getTiming() {
+    return this.clock.getTiming(this.captured.timestamp, this.videoGrabber.getFrameRate());
+  }
+
   @Override
   public Collection<Input> getSources() {
     return this.sources;
@@ -188,9 +235,11 @@ public final class FFmpegDualFrameGrabber implements GrabberPlayer<FramePacket>
 
   @Override
   public FramePacket grabOutputFrame() {
-    final int[] samples = FrameUtils.getRGBSamples(this.width, this.height, this.captured);
-    final byte[] audioSamples = FrameUtils.getAudioSamples(this.captured);
-    final FramePacket packet = new BasicFramePacket(samples, audioSamples, this.width, this.height, this.captured);
+    final FramePacketPool pool = this.result.getPacketPool();
+    final int[] samples = FrameUtils.getRGBSamples(this.width, this.height, this.captured, this.filter.getPixelFormat(), pool.acquireInts(this.width * this.height));
+    final byte[] audioSamples = FrameUtils.getAudioSamples(this.captured, pool.acquireBytes(FrameUtils.getAudioSampleLength(this.captured)));
+    final FramePacket packet = pool.createPacket(samples, audioSamples, this.width, this.height, this.captured, this.getTiming());
+    packet.retain();
     this.result.executePipeline(packet);
     return packet;
   }
@@ -1,16 +1,21 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.grabbers.ffmpeg;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameGrabber;
-import org.bytedeco.javacv.Java2DFrameConverter;
+import io.github.pulsebeat02.ezmediacore.dimension.Resolution;
+import io.github.pulsebeat02.ezmediacore.metrics.FrameDecodeEvent;
+import io.github.pulsebeat02.ezmediacore.metrics.Timer;
 import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberPlayer;
 import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
+import io.github.pulsebeat02.ezmediacore.util.graphics.FrameUtils;
 
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -32,6 +37,8 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
 
   private volatile boolean paused;
   private volatile Frame captured;
+  private volatile Resolution resolution;
+  private volatile ScalingAlgorithm scaling;
 
   public FFmpegGifGrabberPlayer(final FramePipelineResult result) {
     this(result, Executors.newSingleThreadExecutor());
@@ -41,6 +48,19 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
     this.sources = new ArrayList<>();
     this.result = result;
     this.executor = executor;
+    this.scaling = ScalingAlgorithm.AREA;
+  }
+
+  /**
+   * Makes the decoder scale frames to the given size, so the pipeline never sees frames larger
+   * than the output. Takes effect the next time playback starts.
+   *
+   * @param resolution the size of the frames, or {@code null} to keep the source size
+   * @param algorithm the algorithm to scale with
+   */
+  public void setResolution(final Resolution resolution, final ScalingAlgorithm algorithm) {
+    this.resolution = resolution;
+    this.scaling = checkNotNull(algorithm, "Scaling algorithm cannot be null!");
   }
 
   @Override
@@ -59,6 +79,8 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
     final CompletableFuture<String> rawVideo = video.getMediaRepresentation();
     final String retrievedVideo = rawVideo.join();
     this.videoGrabber = new FFmpegFrameGrabber(retrievedVideo);
+    this.videoGrabber.setPixelFormat(avutil.AV_PIX_FMT_BGRA);
+    this.scaling.configure(this.videoGrabber, this.resolution);
     this.videoGrabber.setOptions(arguments);
     this.sources.add(video);
   }
@@ -76,13 +98,22 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
   }
 
   private void grabCurrentFrame() {
+    final Timer decode = this.result.getMetrics().timer("grabber.ffmpeg-gif.decode");
+    long frame = 0;
     while (true) {
       try {
         if (this.paused) {
           break;
         }
-        final Frame frame = this.videoGrabber.grabAtFrameRate();
-        if (frame == null) {
+        final FrameDecodeEvent event = new FrameDecodeEvent();
+        final long start = decode.start();
+        event.begin();
+        final Frame captured = this.videoGrabber.grabAtFrameRate();
+        decode.stop(start);
+        event.end();
+        frame++;
+        FrameUtils.commitDecodeEvent(event, "ffmpeg-gif", frame, captured);
+        if (captured == null) {
           break;
         }
       } catch (final InterruptedException | FrameGrabber.Exception e) {
@@ -138,7 +169,10 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
 
   @Override
   public FramePacket grabOutputFrame() {
-    final FramePacket packet = new BasicFramePacket(this.getRGBSamples(), null, this.width, this.height, null);
+    final FramePacketPool pool = this.result.getPacketPool();
+    final int[] samples = FrameUtils.getRGBSamples(this.width, this.height, this.captured, this.videoGrabber.getPixelFormat(), pool.acquireInts(this.width * this.height));
+    final FramePacket packet = pool.createPacket(samples, null, this.width, this.height, null);
+    packet.retain();
     this.result.executePipeline(packet);
     return packet;
   }
@@ -147,12 +181,4 @@ public final class FFmpegGifGrabberPlayer implements GrabberPlayer<FramePacket>
   public FramePipelineResult getPipeline() {
     return this.result;
   }
-
-  private int[] getRGBSamples() {
-    final BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
-    Java2DFrameConverter.copy(image, this.captured);
-    final int[] rgbSamples = new int[this.width * this.height];
-    image.getRGB(0, 0, this.width, this.height, rgbSamples, 0, this.width);
-    return rgbSamples;
-  }
 }
@@ -1,11 +1,12 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.grabbers.ffmpeg;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import io.github.pulsebeat02.ezmediacore.dimension.Resolution;
 import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberPlayer;
 import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
-import io.github.pulsebeat02.ezmediacore.util.collections.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,7 +18,9 @@ public final class FFmpegGrabberPlayer implements GrabberPlayer<FramePacket> {
 
   private final FramePipelineResult result;
   private final ExecutorService executor;
-  private Map<String, String> resolutionArguments;
+
+  private volatile Resolution resolution;
+  private volatile ScalingAlgorithm scaling;
 
   private volatile GrabberPlayer<FramePacket> player;
 
@@ -28,31 +31,46 @@ public final class FFmpegGrabberPlayer implements GrabberPlayer<FramePacket> {
   public FFmpegGrabberPlayer(final FramePipelineResult result, final ExecutorService executor) {
     this.result = result;
     this.executor = executor;
+    this.scaling = ScalingAlgorithm.AREA;
   }
 
+  /**
+   * Makes the decoder scale frames to the given size with {@link ScalingAlgorithm#AREA}. Takes
+   * effect the next time playback starts.
+   *
+   * @param resolution the size of the frames, or {@code null} to keep the source size
+   */
   public void setResolution(final Resolution resolution) {
-    final int width = resolution.getWidth();
-    final int height = resolution.getHeight();
-    this.resolutionArguments = Map.of("-vf", "scale=" + width + ":" + height);
+    this.setResolution(resolution, ScalingAlgorithm.AREA);
+  }
+
+  /**
+   * Makes the decoder scale frames to the given size, so frames leave libswscale at the output
+   * size instead of being converted and dithered at the source size. Takes effect the next time
+   * playback starts.
+   *
+   * @param resolution the size of the frames, or {@code null} to keep the source size
+   * @param algorithm the algorithm to scale with
+   */
+  public void setResolution(final Resolution resolution, final ScalingAlgorithm algorithm) {
+    this.resolution = resolution;
+    this.scaling = checkNotNull(algorithm, "Scaling algorithm cannot be null!");
   }
 
   @Override
   public void play(final Input video, final Input audio, final Map<String, String> arguments) {
-    final Map<String, String> args = this.constructFinalArguments(arguments);
-    this.player = new FFmpegDualFrameGrabber(this.result, this.executor);
-    this.player.play(video, audio, args);
+    final FFmpegDualFrameGrabber player = new FFmpegDualFrameGrabber(this.result, this.executor);
+    player.setResolution(this.resolution, this.scaling);
+    this.player = player;
+    player.play(video, audio, arguments);
   }
 
   @Override
   public void play(final Input source, final Map<String, String> arguments) {
-    final Map<String, String> args = this.constructFinalArguments(arguments);
-    this.player = new FFmpegSingleFrameGrabber(this.result, this.executor);
-    this.player.play(source, args);
-  }
-
-  private Map<String, String> constructFinalArguments(final Map<String, String> arguments) {
-    final Map<String, String> pre = this.resolutionArguments == null ? Map.of() : this.resolutionArguments;
-    return CollectionUtils.merge(pre, arguments);
+    final FFmpegSingleFrameGrabber player = new FFmpegSingleFrameGrabber(this.result, this.executor);
+    player.setResolution(this.resolution, this.scaling);
+    this.player = player;
+    player.play(source, arguments);
   }
 
   @Override
@@ -1,18 +1,28 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.grabbers.ffmpeg;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import org.bytedeco.ffmpeg.global.avcodec;
 import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameGrabber;
+import io.github.pulsebeat02.ezmediacore.dimension.Resolution;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.metrics.Counter;
+import io.github.pulsebeat02.ezmediacore.metrics.FrameDecodeEvent;
+import io.github.pulsebeat02.ezmediacore.metrics.Timer;
 import io.github.pulsebeat02.ezmediacore.pipeline.FramePipelineResult;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicNativeFramePacket;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FrameTiming;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.PlaybackClock;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberAudioFormat;
 import io.github.pulsebeat02.ezmediacore.pipeline.grabbers.GrabberPlayer;
 import io.github.pulsebeat02.ezmediacore.pipeline.input.Input;
 import io.github.pulsebeat02.ezmediacore.util.graphics.FrameUtils;
 
+import java.lang.foreign.MemorySegment;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -25,12 +35,15 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
   private final FramePipelineResult result;
   private final ExecutorService executor;
   private final Collection<Input> sources;
+  private final PlaybackClock clock;
 
   private volatile FFmpegFrameGrabber grabber;
   private volatile int width;
   private volatile int height;
   private volatile boolean paused;
   private volatile Frame captured;
+  private volatile Resolution resolution;
+  private volatile ScalingAlgorithm scaling;
 
   public FFmpegSingleFrameGrabber(final FramePipelineResult result) {
     this(result, Executors.newSingleThreadExecutor());
@@ -38,8 +51,22 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
 
   public FFmpegSingleFrameGrabber(final FramePipelineResult result, final ExecutorService executor) {
     this.sources = new ArrayList<>();
+    this.clock = new PlaybackClock();
     this.result = result;
     this.executor = executor;
+    this.scaling = ScalingAlgorithm.AREA;
+  }
+
+  /**
+   * Makes the decoder scale frames to the given size, so the pipeline never sees frames larger
+   * than the output. Takes effect the next time playback starts.
+   *
+   * @param resolution the size of the frames, or {@code null} to keep the source size
+   * @param algorithm the algorithm to scale with
+   */
+  public void setResolution(final Resolution resolution, final ScalingAlgorithm algorithm) {
+    this.resolution = resolution;
+    this.scaling = checkNotNull(algorithm, "Scaling algorithm cannot be null!");
   }
 
   @Override
@@ -69,7 +96,8 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
     final GrabberAudioFormat standard = GrabberPlayer.AUDIO_FORMAT;
     this.grabber = new FFmpegFrameGrabber(input);
     this.grabber.setAudioChannels(standard.getChannels());
-    this.grabber.setPixelFormat(avutil.AV_PIX_FMT_BGR32);
+    this.grabber.setPixelFormat(avutil.AV_PIX_FMT_BGRA);
+    this.scaling.configure(this.grabber, this.resolution);
     this.grabber.setAudioCodec(avcodec.AV_CODEC_ID_OPUS); // opus format
     this.grabber.setSampleRate(standard.getSampleRate());
     this.grabber.setOptions(arguments);
@@ -80,17 +108,32 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
   }
 
   private void consumeFrames() {
+    this.clock.reset();
     CompletableFuture.runAsync(this::grabCurrentFrame, this.executor);
   }
 
   private void grabCurrentFrame() {
+    final Timer decode = this.result.getMetrics().timer("grabber.ffmpeg.decode");
+    final Counter skipped = this.result.getMetrics().counter("grabber.ffmpeg.skipped");
+    long frame = 0;
     while (true) {
       try {
         if (this.paused) {
           break;
         }
+        final FrameDecodeEvent event = new FrameDecodeEvent();
+        final long start = decode.start();
+        event.begin();
         this.captured = this.grabber.grabAtFrameRate();
-        this.grabOutputFrame();
+        decode.stop(start);
+        event.end();
+        frame++;
+        FrameUtils.commitDecodeEvent(event, "ffmpeg", frame, this.captured);
+        if (this.result.hasDemand()) {
+          this.grabOutputFrame().release();
+        } else {
+          skipped.increment();
+        }
       } catch (final InterruptedException | FrameGrabber.Exception e) {
         throw new AssertionError(e);
       }
@@ -120,6 +163,7 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
     try {
       if (this.grabber != null) {
         this.grabber.setTimestamp(position);
+        this.clock.reset();
       }
     } catch (final FFmpegFrameGrabber.Exception e) {
       throw new AssertionError(e);
@@ -142,6 +186,10 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
     }
   }
 
+  private FrameTiming getTiming() {
+    return this.clock.getTiming(this.captured.timestamp, this.grabber.getFrameRate());
+  }
+
   @Override
   public Collection<Input> getSources() {
     return this.sources;
@@ -149,9 +197,12 @@ public final class FFmpegSingleFrameGrabber implements GrabberPlayer<FramePacket
 
   @Override
   public FramePacket grabOutputFrame() {
-    final int[] samples = FrameUtils.getRGBSamples(this.width, this.height, this.captured);
+    final MemorySegment pixels = FrameUtils.getPixelSegment(this.captured);
+    final int stride = this.captured.imageStride;
     final byte[] audioSamples = FrameUtils.getAudioSamples(this.captured);
-    final FramePacket packet = new BasicFramePacket(samples, audioSamples, this.width, this.height, this.captured);
+    final FramePacket packet =
+        new BasicNativeFramePacket(pixels, stride, PixelLayout.BGR32, audioSamples, this.width, this.height, this.captured, this.getTiming());
+    packet.retain();
     this.result.executePipeline(packet);
     return packet;
   }
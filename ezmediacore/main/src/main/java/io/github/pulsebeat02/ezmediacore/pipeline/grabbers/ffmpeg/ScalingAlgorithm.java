@@ -0,0 +1,55 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.grabbers.ffmpeg;
+
+import org.bytedeco.ffmpeg.global.swscale;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import io.github.pulsebeat02.ezmediacore.dimension.Resolution;
+
+/**
+ * The libswscale algorithms the FFmpeg grabbers can scale decoded frames with. Scaling happens in
+ * the same pass that converts the frame to BGRA, so the pipeline only ever sees frames of the
+ * output size.
+ */
+public enum ScalingAlgorithm {
+
+  /** Nearest neighbour; the cheapest, and blocky when shrinking a lot. */
+  POINT(swscale.SWS_POINT),
+
+  /** A faster, less accurate bilinear filter. */
+  FAST_BILINEAR(swscale.SWS_FAST_BILINEAR),
+
+  /** Bilinear filtering, FFmpeg's own default. */
+  BILINEAR(swscale.SWS_BILINEAR),
+
+  /** Bicubic filtering; sharper than bilinear at a higher cost. */
+  BICUBIC(swscale.SWS_BICUBIC),
+
+  /** Averages the source pixels covering each output pixel; the best fit for large downscales. */
+  AREA(swscale.SWS_AREA),
+
+  /** Lanczos filtering; the sharpest and the most expensive. */
+  LANCZOS(swscale.SWS_LANCZOS);
+
+  private final int flags;
+
+  ScalingAlgorithm(final int flags) {
+    this.flags = flags;
+  }
+
+  void configure(final FFmpegFrameGrabber grabber, final Resolution resolution) {
+    if (resolution == null) {
+      return;
+    }
+    grabber.setImageWidth(resolution.getWidth());
+    grabber.setImageHeight(resolution.getHeight());
+    grabber.setImageScalingFlags(this.flags);
+  }
+
+  /**
+   * Returns the flags to pass to {@code FrameGrabber#setImageScalingFlags(int)}.
+   *
+   * @return the libswscale flags
+   */
+  public int getFlags() {
+    return this.flags;
+  }
+}
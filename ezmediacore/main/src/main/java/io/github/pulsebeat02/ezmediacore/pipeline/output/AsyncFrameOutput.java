@@ -0,0 +1,154 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.output;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands frames to another output on its own executor. The output keeps a single-frame mailbox: a
+ * frame that arrives while the previous one is still waiting replaces it, and a frame whose
+ * deadline passed while it waited is skipped, so a slow output only drops its own frames and never
+ * holds up the pipeline or the outputs next to it.
+ *
+ * <p>Packets are detached before they enter the mailbox, the same way they are at a pipeline stage
+ * boundary, so frames that wrap the decoder's reused image buffer are copied before the grabber
+ * overwrites it. Dithered packets that share an output ring ({@code
+ * DitherConfiguration#getOutputBuffers()}) may still be overwritten, so give the ring more buffers
+ * than there are asynchronous outputs.
+ */
+public final class AsyncFrameOutput<I> implements FrameOutputSource<I> {
+
+  private final FrameOutputSource<I> delegate;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final AtomicReference<I> mailbox;
+  private final AtomicBoolean scheduled;
+  private final AtomicLong dropped;
+
+  private volatile boolean released;
+
+  public AsyncFrameOutput(final FrameOutputSource<I> delegate, final Executor executor) {
+    this(delegate, executor, false);
+  }
+
+  public AsyncFrameOutput(final FrameOutputSource<I> delegate) {
+    this(delegate, Executors.newVirtualThreadPerTaskExecutor(), true);
+  }
+
+  private AsyncFrameOutput(
+      final FrameOutputSource<I> delegate, final Executor executor, final boolean ownsExecutor) {
+    this.delegate = checkNotNull(delegate, "Output cannot be null!");
+    this.executor = checkNotNull(executor, "Executor cannot be null!");
+    this.ownsExecutor = ownsExecutor;
+    this.mailbox = new AtomicReference<>();
+    this.scheduled = new AtomicBoolean();
+    this.dropped = new AtomicLong();
+  }
+
+  public static <I> AsyncFrameOutput<I> of(final FrameOutputSource<I> delegate) {
+    return new AsyncFrameOutput<>(delegate);
+  }
+
+  @Override
+  public void output(final I input) {
+    if (this.released) {
+      return;
+    }
+    final I previous = this.mailbox.getAndSet(detach(input));
+    if (previous != null) {
+      this.dropped.incrementAndGet();
+      release(previous);
+    }
+    if (this.released) {
+      release(this.mailbox.getAndSet(null));
+      return;
+    }
+    this.schedule();
+  }
+
+  private void schedule() {
+    if (!this.scheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.executor.execute(this::drain);
+    } catch (final RejectedExecutionException e) {
+      this.scheduled.set(false);
+      release(this.mailbox.getAndSet(null));
+    }
+  }
+
+  private void drain() {
+    I input;
+    while ((input = this.mailbox.getAndSet(null)) != null) {
+      try {
+        if (input instanceof final FramePacket packet && packet.isLate()) {
+          this.dropped.incrementAndGet();
+        } else if (!this.released) {
+          this.delegate.output(input);
+        }
+      } catch (final RuntimeException e) {
+        final Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      } finally {
+        release(input);
+      }
+    }
+    this.scheduled.set(false);
+    if (this.mailbox.get() != null) {
+      this.schedule();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <I> I detach(final I input) {
+    if (!(input instanceof final FramePacket packet)) {
+      return input;
+    }
+    final FramePacket detached = packet.detach();
+    if (detached == packet) {
+      packet.retain();
+    }
+    return (I) detached;
+  }
+
+  private static void release(final Object input) {
+    if (input instanceof final FramePacket packet) {
+      packet.release();
+    }
+  }
+
+  @Override
+  public void release() {
+    this.released = true;
+    release(this.mailbox.getAndSet(null));
+    if (this.ownsExecutor && this.executor instanceof final ExecutorService service) {
+      service.shutdown();
+    }
+    this.delegate.release();
+  }
+
+  @Override
+  public boolean isAcceptingFrames() {
+    return !this.released && this.delegate.isAcceptingFrames();
+  }
+
+  public FrameOutputSource<I> getDelegate() {
+    return this.delegate;
+  }
+
+  public long getDroppedFrames() {
+    return this.dropped.get();
+  }
+
+  public boolean isBusy() {
+    return this.scheduled.get();
+  }
+}
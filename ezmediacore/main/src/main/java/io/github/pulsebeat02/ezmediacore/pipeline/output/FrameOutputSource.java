@@ -4,4 +4,15 @@ package io.github.pulsebeat02.ezmediacore.pipeline.output;
 public interface FrameOutputSource<I> {
   void output(final I input);
   default void release() {}
+
+  /**
+   * Returns whether this output would display a frame handed to it now. Pipelines skip the frame
+   * before running any step when none of their outputs accept it, so rate-limited outputs do not
+   * cost a conversion and dither for frames they would throw away.
+   *
+   * @return whether the output wants the next frame
+   */
+  default boolean isAcceptingFrames() {
+    return true;
+  }
 }
@@ -1,38 +1,131 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.output.audio;
 
 import org.jetbrains.annotations.Nullable;
+import io.github.pulsebeat02.ezmediacore.metrics.AudioUnderrunEvent;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
 
 import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Queues the audio of each frame for JDA, which polls for 20 ms of it at a time. Queued packets are
+ * retained, so their pooled sample arrays are not recycled before JDA has read them; a packet is
+ * released once JDA asks for the next buffer, or when the output is released.
+ */
 public final class JDAFrameOutput extends DiscordSendHandlerOutput {
 
   private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.wrap(new byte[0]);
+  private static final long PAUSE_THRESHOLD = TimeUnit.SECONDS.toNanos(1);
 
-  private final Queue<ByteBuffer> audioQueue;
+  private final Queue<FramePacket> audioQueue;
+  private final AtomicReference<FramePacket> playing;
+  private final AtomicLong underruns;
+
+  private volatile boolean started;
+  private volatile boolean released;
+  private volatile long starvedSince;
 
   public JDAFrameOutput() {
     this.audioQueue = new ConcurrentLinkedQueue<>();
+    this.playing = new AtomicReference<>();
+    this.underruns = new AtomicLong();
   }
 
   @Override
   public void output(final FramePacket input) {
     final byte[] audioSamples = input.getAudioSamples();
-    if (audioSamples != null) {
-      this.audioQueue.add(ByteBuffer.wrap(audioSamples));
+    if (audioSamples == null || this.released) {
+      return;
+    }
+    final FramePacket packet = input.detach();
+    if (packet == input) {
+      input.retain();
+    }
+    this.audioQueue.add(packet);
+    if (this.released) {
+      this.clear();
+      return;
     }
+    final long starvedSince = this.starvedSince;
+    if (starvedSince != 0) {
+      this.starvedSince = 0;
+      if (System.nanoTime() - starvedSince < PAUSE_THRESHOLD) {
+        this.recordUnderrun();
+      }
+    }
+    this.started = true;
   }
 
+  /**
+   * Returns whether audio is queued. JDA polls this every 20 ms whether or not anything plays, so
+   * an empty queue only counts as an underrun once audio arrives again shortly after it ran dry; a
+   * queue that stays empty because playback ended, paused or was released counts nothing.
+   */
   @Override
   public boolean canProvide() {
-    return !this.audioQueue.isEmpty();
+    final boolean available = !this.audioQueue.isEmpty();
+    if (!available && this.started && !this.released && this.starvedSince == 0) {
+      this.starvedSince = System.nanoTime();
+    }
+    return available;
+  }
+
+  @Override
+  public void release() {
+    this.released = true;
+    this.started = false;
+    this.starvedSince = 0;
+    this.clear();
+  }
+
+  private void clear() {
+    FramePacket packet;
+    while ((packet = this.audioQueue.poll()) != null) {
+      packet.release();
+    }
+    this.play(null);
+  }
+
+  private void play(final FramePacket packet) {
+    final FramePacket previous = this.playing.getAndSet(packet);
+    if (previous != null) {
+      previous.release();
+    }
+  }
+
+  private void recordUnderrun() {
+    final long underruns = this.underruns.incrementAndGet();
+    final AudioUnderrunEvent event = new AudioUnderrunEvent();
+    if (event.shouldCommit()) {
+      event.output = this.getClass().getSimpleName();
+      event.underruns = underruns;
+      event.commit();
+    }
+  }
+
+  public long getUnderruns() {
+    return this.underruns.get();
   }
 
   @Nullable
   @Override
   public ByteBuffer provide20MsAudio() {
-    return this.canProvide() ? this.audioQueue.poll() : EMPTY_BUFFER;
+    if (!this.canProvide()) {
+      return EMPTY_BUFFER;
+    }
+    final FramePacket packet = this.audioQueue.poll();
+    if (packet == null) {
+      return EMPTY_BUFFER;
+    }
+    if (this.released) {
+      packet.release();
+      return EMPTY_BUFFER;
+    }
+    this.play(packet);
+    return ByteBuffer.wrap(packet.getAudioSamples());
   }
 }
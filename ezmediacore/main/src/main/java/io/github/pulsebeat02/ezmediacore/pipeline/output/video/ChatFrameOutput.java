@@ -15,7 +15,6 @@ import java.util.UUID;
 public final class ChatFrameOutput extends MinecraftFrameOutput<FramePacket> {
 
   private final NamedStringCharacter character;
-  private volatile long lastUpdated;
 
   ChatFrameOutput(final EzMediaCore core,
                          final Viewers viewers,
@@ -33,9 +32,7 @@ public final class ChatFrameOutput extends MinecraftFrameOutput<FramePacket> {
   @Override
   public void output(final FramePacket input) {
     final long time = System.currentTimeMillis();
-    final DelayConfiguration configuration = this.getDelayConfiguration();
-    final long delay = configuration.getDelay();
-    if (time - this.lastUpdated > delay) {
+    if (this.isDue(time)) {
       final EzMediaCore core = this.getCore();
       final PacketHandler handler = PacketToolsProvider.getPacketHandler();
       final Viewers viewers = this.getViewers();
@@ -46,7 +43,8 @@ public final class ChatFrameOutput extends MinecraftFrameOutput<FramePacket> {
       final int width = resolution.getWidth();
       final int height = resolution.getHeight();
       handler.displayChat(uuids, data, character, width, height);
-      this.lastUpdated = time;
+      this.recordSent(uuids, height, 0);
+      this.markUpdated(time);
     }
   }
 
@@ -17,7 +17,6 @@ public final class DebugFrameOutput extends MinecraftFrameOutput<FramePacket> {
 
   private final Location location;
   private final NamedStringCharacter character;
-  private volatile long lastUpdated;
 
   DebugFrameOutput(final EzMediaCore core, final Viewers viewers, final Dimension resolution, final DelayConfiguration configuration, final Location location,
                           final NamedStringCharacter character) {
@@ -38,7 +37,7 @@ public final class DebugFrameOutput extends MinecraftFrameOutput<FramePacket> {
     final Dimension dimension = this.getResolution();
     final int width = dimension.getWidth();
     final int height = dimension.getHeight();
-    if (time - this.lastUpdated >= delay) {
+    if (this.isDue(time)) {
       final Viewers viewers = this.getViewers();
       final UUID[] uuids = viewers.getViewers();
       final EzMediaCore core = this.getCore();
@@ -54,10 +53,19 @@ public final class DebugFrameOutput extends MinecraftFrameOutput<FramePacket> {
           handler.displayDebugMarker(uuids, name, modifiedY, z, modifiedX, color, newDelay);
         }
       }
-      this.lastUpdated = time;
+      this.markUpdated(time);
     }
   }
 
+  /**
+   * Unlike the other outputs, a debug frame is due once the full delay has passed, so with no delay
+   * every frame is drawn, even two that arrive in the same millisecond.
+   */
+  @Override
+  protected boolean isDue(final long time) {
+    return time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay();
+  }
+
   public static class DebugFrameOutputBuilder {
 
     private Viewers viewers = Viewers.onlinePlayers();
@@ -28,7 +28,6 @@ public final class EntityFrameOutput<T extends Entity> extends MinecraftFrameOut
   private final NamedStringCharacter character;
   private final Entity[] entities;
   private final AtomicBoolean started;
-  private volatile long lastUpdated;
 
   public EntityFrameOutput(final EzMediaCore core,
                            final Viewers viewers,
@@ -63,9 +62,7 @@ public final class EntityFrameOutput<T extends Entity> extends MinecraftFrameOut
     final Dimension resolution = this.getResolution();
     final int width = resolution.getWidth();
     final String name = this.character.getCharacter();
-    final DelayConfiguration configuration = this.getDelayConfiguration();
-    final long delay = configuration.getDelay();
-    if (time - this.lastUpdated > delay) {
+    if (this.isDue(time)) {
       final EzMediaCore core = this.getCore();
       final PacketHandler handler = PacketToolsProvider.getPacketHandler();
       final Viewers viewers = this.getViewers();
@@ -73,7 +70,8 @@ public final class EntityFrameOutput<T extends Entity> extends MinecraftFrameOut
       final int height = this.entities.length;
       final int[] data = input.getRGBSamples();
       handler.displayEntities(watchers, this.entities, data, name, width, height);
-      this.lastUpdated = time;
+      this.recordSent(watchers, height, 0);
+      this.markUpdated(time);
     }
   }
 
@@ -17,7 +17,6 @@ public final class MapFrameOutput extends MinecraftFrameOutput<DitheredPacket> {
 
   private final Dimension blocks;
   private final Identifier<Integer> startingMap;
-  private volatile long lastUpdated;
 
   public MapFrameOutput(
           final EzMediaCore core,
@@ -37,10 +36,8 @@ public final class MapFrameOutput extends MinecraftFrameOutput<DitheredPacket> {
 
   @Override
   public void output(final DitheredPacket input) {
-    final DelayConfiguration configuration = this.getDelayConfiguration();
-    final long delay = configuration.getDelay();
     final long time = System.currentTimeMillis();
-    if (time - this.lastUpdated > delay) {
+    if (this.isDue(time)) {
       final EzMediaCore core = this.getCore();
       final PacketHandler handler = PacketToolsProvider.getPacketHandler();
       final Viewers viewers = this.getViewers();
@@ -52,7 +49,8 @@ public final class MapFrameOutput extends MinecraftFrameOutput<DitheredPacket> {
       final int id = this.startingMap.getValue();
       final UUID[] uuids = viewers.getViewers();
       handler.displayMaps(uuids, data, id, width, height, blockWidth);
-      this.lastUpdated = time;
+      this.recordSent(uuids, blockWidth * this.blocks.getHeight(), data.length);
+      this.markUpdated(time);
     }
   }
 
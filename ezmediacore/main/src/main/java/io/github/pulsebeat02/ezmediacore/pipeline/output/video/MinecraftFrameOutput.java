@@ -1,12 +1,16 @@
 package io.github.pulsebeat02.ezmediacore.pipeline.output.video;
 
 import io.github.pulsebeat02.ezmediacore.EzMediaCore;
+import io.github.pulsebeat02.ezmediacore.metrics.Counter;
+import io.github.pulsebeat02.ezmediacore.metrics.MetricRegistry;
 import io.github.pulsebeat02.ezmediacore.pipeline.output.DelayConfiguration;
 import io.github.pulsebeat02.ezmediacore.pipeline.output.Viewers;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
 import io.github.pulsebeat02.ezmediacore.pipeline.output.FrameOutputSource;
 
+import java.util.UUID;
+
 public abstract class MinecraftFrameOutput<T extends FramePacket> implements FrameOutputSource<T> {
 
   private final EzMediaCore core;
@@ -14,6 +18,11 @@ public abstract class MinecraftFrameOutput<T extends FramePacket> implements Fra
   private final Dimension resolution;
   private final DelayConfiguration configuration;
 
+  private volatile long lastUpdated;
+  private volatile MetricRegistry metrics;
+  private volatile Counter sentPackets;
+  private volatile Counter sentBytes;
+
   public MinecraftFrameOutput(final EzMediaCore core, final Viewers viewers, final Dimension resolution, final DelayConfiguration configuration) {
     this.core = core;
     this.viewers = viewers;
@@ -21,6 +30,51 @@ public abstract class MinecraftFrameOutput<T extends FramePacket> implements Fra
     this.configuration = configuration;
   }
 
+  /**
+   * Counts the packets and bytes sent to viewers when the core has metrics enabled. The totals of
+   * all viewers go into {@code viewers.packets} and {@code viewers.bytes}.
+   *
+   * @param viewers the viewers that were sent the frame
+   * @param packets the packets sent to each viewer
+   * @param bytes the payload bytes sent to each viewer, or 0 if unknown
+   */
+  protected void recordSent(final UUID[] viewers, final int packets, final long bytes) {
+    final MetricRegistry metrics = this.core.getMetrics();
+    if (!metrics.isEnabled()) {
+      return;
+    }
+    if (metrics != this.metrics) {
+      this.sentPackets = metrics.counter("viewers.packets");
+      this.sentBytes = metrics.counter("viewers.bytes");
+      this.metrics = metrics;
+    }
+    this.sentPackets.add((long) packets * viewers.length);
+    this.sentBytes.add(bytes * viewers.length);
+  }
+
+  /**
+   * Returns whether the configured delay has passed since the last frame was sent.
+   *
+   * @param time the current time in milliseconds
+   * @return whether a frame may be sent at {@code time}
+   */
+  protected boolean isDue(final long time) {
+    return time - this.lastUpdated > this.configuration.getDelay();
+  }
+
+  protected void markUpdated(final long time) {
+    this.lastUpdated = time;
+  }
+
+  protected long getLastUpdated() {
+    return this.lastUpdated;
+  }
+
+  @Override
+  public boolean isAcceptingFrames() {
+    return this.isDue(System.currentTimeMillis());
+  }
+
   public Dimension getResolution() {
     return this.resolution;
   }
@@ -29,7 +29,6 @@ public final class ScoreboardFrameOutput extends MinecraftFrameOutput<FramePacke
   private final String name;
   private final NamedStringCharacter character;
   private final AtomicBoolean started;
-  private volatile long lastUpdated;
 
   public ScoreboardFrameOutput(
           final EzMediaCore core,
@@ -64,16 +63,21 @@ public final class ScoreboardFrameOutput extends MinecraftFrameOutput<FramePacke
     final EzMediaCore core = this.getCore();
     final Plugin plugin = core.getPlugin();
     final BukkitScheduler scheduler = Bukkit.getScheduler();
-    final int[] data = input.getRGBSamples();
-    scheduler.callSyncMethod(plugin, this.processRunnable(data));
+    final FramePacket packet = input.detach();
+    if (packet == input) {
+      input.retain();
+    }
+    scheduler.callSyncMethod(plugin, this.processRunnable(packet));
   }
 
-  private <T> Callable<T> processRunnable(final int[] data) {
+  private <T> Callable<T> processRunnable(final FramePacket packet) {
     return () -> {
       final long time = System.currentTimeMillis();
-      final DelayConfiguration configuration = this.getDelayConfiguration();
-      final long delay = configuration.getDelay();
-      if (time - this.lastUpdated > delay) {
+      try {
+        if (!this.isDue(time)) {
+          return null;
+        }
+        final int[] data = packet.getRGBSamples();
         final EzMediaCore core = this.getCore();
         final PacketHandler handler = PacketToolsProvider.getPacketHandler();
         final Viewers viewers = this.getViewers();
@@ -84,9 +88,11 @@ public final class ScoreboardFrameOutput extends MinecraftFrameOutput<FramePacke
         final String character = this.character.getCharacter();
         this.setViewerScoreboards();
         handler.displayScoreboard(watchers, this.scoreboard, data, character, width, height);
-        this.lastUpdated = time;
+        this.markUpdated(time);
+        return null;
+      } finally {
+        packet.release();
       }
-      return null;
     };
   }
 
@@ -0,0 +1,143 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.NativeFramePacket;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Resizes frames to a fixed resolution by averaging the source pixels that fall into each output
+ * pixel. Pixels are read straight from native packets, so the source is never unpacked. Bins are
+ * recalculated only when the source resolution changes. Not thread-safe.
+ */
+public final class AreaScaler {
+
+  private final int width;
+  private final int height;
+  private final int[] red;
+  private final int[] green;
+  private final int[] blue;
+
+  private int sourceWidth;
+  private int sourceHeight;
+  private int[] columnStarts;
+  private int[] columnEnds;
+  private int[] rowStarts;
+  private int[] rowEnds;
+
+  private MemorySegment pixels;
+  private int stride;
+  private PixelLayout layout;
+
+  public AreaScaler(final int width, final int height) {
+    checkArgument(width > 0 && height > 0, "Output resolution must be positive!");
+    this.width = width;
+    this.height = height;
+    this.red = new int[width];
+    this.green = new int[width];
+    this.blue = new int[width];
+  }
+
+  /**
+   * Selects the packet that following {@link #scaleRow(int, int[], int)} calls read from.
+   *
+   * @param input the source frame
+   */
+  public void setSource(final FramePacket input) {
+    final int sourceWidth = input.getImageWidth();
+    this.updateBins(sourceWidth, input.getImageHeight());
+    if (input instanceof final NativeFramePacket packet) {
+      this.pixels = packet.getPixelSegment();
+      this.stride = packet.getStride();
+      this.layout = packet.getPixelLayout();
+    } else {
+      this.pixels = MemorySegment.ofArray(input.getRGBSamples());
+      this.stride = sourceWidth << 2;
+      this.layout = PixelLayout.INT_ARGB;
+    }
+  }
+
+  public void scale(final FramePacket input, final int[] output) {
+    this.setSource(input);
+    for (int y = 0; y < this.height; y++) {
+      this.scaleRow(y, output, y * this.width);
+    }
+  }
+
+  public void scaleRow(final int y, final int[] output, final int outputOffset) {
+    final MemorySegment pixels = this.pixels;
+    final PixelLayout layout = this.layout;
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    final int rowStart = this.rowStarts[y];
+    final int rowEnd = this.rowEnds[y];
+    for (int sourceY = rowStart; sourceY < rowEnd; sourceY++) {
+      final long row = (long) sourceY * this.stride;
+      for (int x = 0; x < this.width; x++) {
+        final int columnEnd = this.columnEnds[x];
+        int r = 0;
+        int g = 0;
+        int b = 0;
+        for (int sourceX = this.columnStarts[x]; sourceX < columnEnd; sourceX++) {
+          final int color = layout.getRGB(pixels, row + (long) sourceX * bytesPerPixel);
+          r += color >> 16 & 0xFF;
+          g += color >> 8 & 0xFF;
+          b += color & 0xFF;
+        }
+        this.red[x] += r;
+        this.green[x] += g;
+        this.blue[x] += b;
+      }
+    }
+    final int rows = rowEnd - rowStart;
+    for (int x = 0; x < this.width; x++) {
+      final int count = rows * (this.columnEnds[x] - this.columnStarts[x]);
+      final int half = count >> 1;
+      final int r = (this.red[x] + half) / count;
+      final int g = (this.green[x] + half) / count;
+      final int b = (this.blue[x] + half) / count;
+      output[outputOffset + x] = 0xFF000000 | r << 16 | g << 8 | b;
+      this.red[x] = 0;
+      this.green[x] = 0;
+      this.blue[x] = 0;
+    }
+  }
+
+  private void updateBins(final int sourceWidth, final int sourceHeight) {
+    if (this.columnStarts != null && this.sourceWidth == sourceWidth && this.sourceHeight == sourceHeight) {
+      return;
+    }
+    this.sourceWidth = sourceWidth;
+    this.sourceHeight = sourceHeight;
+    this.columnStarts = this.calculateStarts(sourceWidth, this.width);
+    this.columnEnds = this.calculateEnds(this.columnStarts, sourceWidth, this.width);
+    this.rowStarts = this.calculateStarts(sourceHeight, this.height);
+    this.rowEnds = this.calculateEnds(this.rowStarts, sourceHeight, this.height);
+  }
+
+  private int[] calculateStarts(final int source, final int target) {
+    final int[] starts = new int[target];
+    for (int i = 0; i < target; i++) {
+      starts[i] = (int) Math.min((long) i * source / target, source - 1);
+    }
+    return starts;
+  }
+
+  private int[] calculateEnds(final int[] starts, final int source, final int target) {
+    final int[] ends = new int[target];
+    for (int i = 0; i < target; i++) {
+      final int end = (int) ((long) (i + 1) * source / target);
+      ends[i] = Math.max(end, starts[i] + 1);
+    }
+    return ends;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+}
@@ -0,0 +1,113 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicBlockChangePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BlockChangeMask;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BlockChangePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.NativeFramePacket;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/**
+ * Compares every frame with the one before it in square blocks and attaches the resulting {@link
+ * BlockChangeMask}. Rows are compared with {@link MemorySegment#mismatch}, which is vectorized, and
+ * a matching row is skipped in a single call. Place it right before a dither step so that the
+ * step can reuse its previous output for clean blocks.
+ */
+public final class BlockChangeDetectionPipelineStep implements FramePipelineStep<FramePacket, BlockChangePacket> {
+
+  public static final int DEFAULT_BLOCK_SIZE = 8;
+
+  private final int blockSize;
+
+  private MemorySegment previous;
+  private PixelLayout layout;
+  private int width;
+  private int height;
+  private long sequence;
+
+  public BlockChangeDetectionPipelineStep() {
+    this(DEFAULT_BLOCK_SIZE);
+  }
+
+  public BlockChangeDetectionPipelineStep(final int blockSize) {
+    checkArgument(blockSize > 0, "Block size must be positive!");
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public BlockChangePacket process(final FramePacket input) {
+    final int width = input.getImageWidth();
+    final int height = input.getImageHeight();
+    final MemorySegment pixels;
+    final int stride;
+    final PixelLayout layout;
+    if (input instanceof final NativeFramePacket packet) {
+      pixels = packet.getPixelSegment();
+      stride = packet.getStride();
+      layout = packet.getPixelLayout();
+    } else {
+      pixels = MemorySegment.ofArray(input.getRGBSamples());
+      stride = width << 2;
+      layout = PixelLayout.INT_ARGB;
+    }
+
+    final int columns = (width + this.blockSize - 1) / this.blockSize;
+    final int rows = (height + this.blockSize - 1) / this.blockSize;
+    final boolean[] dirty = new boolean[columns * rows];
+    final int rowBytes = width * layout.getBytesPerPixel();
+    final boolean reset = this.previous == null || this.width != width || this.height != height || this.layout != layout;
+    if (reset) {
+      this.previous = MemorySegment.ofArray(new byte[rowBytes * height]);
+      this.width = width;
+      this.height = height;
+      this.layout = layout;
+      Arrays.fill(dirty, true);
+    }
+
+    final boolean changed = reset || this.compare(pixels, stride, rowBytes, layout.getBytesPerPixel(), columns, dirty);
+    if (changed) {
+      for (int y = 0; y < height; y++) {
+        MemorySegment.copy(pixels, (long) y * stride, this.previous, (long) y * rowBytes, rowBytes);
+      }
+    }
+
+    final BlockChangeMask mask = new BlockChangeMask(this.blockSize, columns, rows, this.sequence++, dirty);
+    return BasicBlockChangePacket.create(input, mask);
+  }
+
+  private boolean compare(
+      final MemorySegment pixels,
+      final int stride,
+      final int rowBytes,
+      final int bytesPerPixel,
+      final int columns,
+      final boolean[] dirty) {
+    final int blockBytes = this.blockSize * bytesPerPixel;
+    boolean changed = false;
+    for (int y = 0; y < this.height; y++) {
+      final long row = (long) y * stride;
+      final long previousRow = (long) y * rowBytes;
+      final int blockRow = (y / this.blockSize) * columns;
+      long start = 0;
+      while (start < rowBytes) {
+        final long mismatch = MemorySegment.mismatch(pixels, row + start, row + rowBytes, this.previous, previousRow + start, previousRow + rowBytes);
+        if (mismatch == -1) {
+          break;
+        }
+        final int column = (int) ((start + mismatch) / blockBytes);
+        dirty[blockRow + column] = true;
+        changed = true;
+        start = (long) (column + 1) * blockBytes;
+      }
+    }
+    return changed;
+  }
+
+  public int getBlockSize() {
+    return this.blockSize;
+  }
+}
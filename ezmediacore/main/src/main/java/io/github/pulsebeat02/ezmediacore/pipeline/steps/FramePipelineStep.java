@@ -2,5 +2,13 @@ package io.github.pulsebeat02.ezmediacore.pipeline.steps;
 
 @FunctionalInterface
 public interface FramePipelineStep<I, O> {
+
+  /**
+   * Processes a frame. Returning {@code null} drops the frame; the rest of the pipeline and the
+   * outputs never see it.
+   *
+   * @param input the frame
+   * @return the processed frame, or {@code null} to drop it
+   */
   O process(final I input);
 }
@@ -0,0 +1,249 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicNativeFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.NativeFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.PooledPacket;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Finds the black bars of letterboxed and pillarboxed video and crops them off, so the scaling and
+ * dither steps after it only spend map pixels on the picture. Place it right after the grabber and
+ * before a {@link ScalePipelineStep} or a downscaling dither step; the frames it emits change size
+ * when the bars do.
+ *
+ * <p>Edge rows and columns are sampled during the first {@code detectionFrames} frames and again
+ * after every scene cut, and the picture is the union of everything that was not dark in that
+ * window. Frames that are mostly dark are not measured, so fades do not crop the picture. Frames
+ * from the decoder buffer are cropped without copying a pixel.
+ */
+public final class LetterboxCropPipelineStep implements FramePipelineStep<FramePacket, FramePacket> {
+
+  public static final int DEFAULT_THRESHOLD = 24;
+  public static final int DEFAULT_DETECTION_FRAMES = 90;
+  public static final int DEFAULT_SCENE_CUT_THRESHOLD = 48;
+
+  private static final int SAMPLE_STEP = 8;
+  private static final int SCENE_SAMPLE_STEP = 16;
+
+  private final int threshold;
+  private final int detectionFrames;
+  private final int sceneCutThreshold;
+
+  private int width;
+  private int height;
+  private int remaining;
+  private int luma;
+  private int left;
+  private int top;
+  private int right;
+  private int bottom;
+  private boolean detected;
+  private boolean restart;
+
+  public LetterboxCropPipelineStep() {
+    this(DEFAULT_THRESHOLD, DEFAULT_DETECTION_FRAMES, DEFAULT_SCENE_CUT_THRESHOLD);
+  }
+
+  /**
+   * Creates a crop step.
+   *
+   * @param threshold the brightest channel value, from 0 to 255, that still counts as a bar
+   * @param detectionFrames how many frames to sample after playback starts and after a scene cut
+   * @param sceneCutThreshold the change of the average brightness between two frames that counts
+   *     as a scene cut
+   */
+  public LetterboxCropPipelineStep(
+      final int threshold, final int detectionFrames, final int sceneCutThreshold) {
+    checkArgument(threshold >= 0 && threshold <= 255, "Threshold must be between 0 and 255!");
+    checkArgument(detectionFrames > 0, "Detection frames must be positive!");
+    checkArgument(sceneCutThreshold > 0, "Scene cut threshold must be positive!");
+    this.threshold = threshold;
+    this.detectionFrames = detectionFrames;
+    this.sceneCutThreshold = sceneCutThreshold;
+    this.luma = -1;
+  }
+
+  @Override
+  public FramePacket process(final FramePacket input) {
+    final int width = input.getImageWidth();
+    final int height = input.getImageHeight();
+    final MemorySegment pixels;
+    final int stride;
+    final PixelLayout layout;
+    if (input instanceof final NativeFramePacket packet) {
+      pixels = packet.getPixelSegment();
+      stride = packet.getStride();
+      layout = packet.getPixelLayout();
+    } else {
+      pixels = MemorySegment.ofArray(input.getRGBSamples());
+      stride = width << 2;
+      layout = PixelLayout.INT_ARGB;
+    }
+    if (width != this.width || height != this.height) {
+      this.width = width;
+      this.height = height;
+      this.detected = false;
+      this.remaining = this.detectionFrames;
+      this.luma = -1;
+    }
+    final int luma = this.getAverageLuma(pixels, stride, layout);
+    if (this.luma >= 0 && Math.abs(luma - this.luma) > this.sceneCutThreshold) {
+      this.restart = true;
+      this.remaining = this.detectionFrames;
+    }
+    this.luma = luma;
+    if (this.remaining > 0) {
+      this.remaining--;
+      this.detect(pixels, stride, layout);
+    }
+    if (!this.detected) {
+      return input;
+    }
+    final int cropWidth = this.right - this.left;
+    final int cropHeight = this.bottom - this.top;
+    if (cropWidth == width && cropHeight == height) {
+      return input;
+    }
+    return this.crop(input, pixels, stride, layout, cropWidth, cropHeight);
+  }
+
+  private void detect(final MemorySegment pixels, final int stride, final PixelLayout layout) {
+    final int width = this.width;
+    final int height = this.height;
+    int top = 0;
+    while (top < height >> 1 && this.isDarkRow(pixels, stride, layout, top)) {
+      top++;
+    }
+    int bottom = height;
+    while (bottom > height - (height >> 1) && this.isDarkRow(pixels, stride, layout, bottom - 1)) {
+      bottom--;
+    }
+    int left = 0;
+    while (left < width >> 1 && this.isDarkColumn(pixels, stride, layout, left, top, bottom)) {
+      left++;
+    }
+    int right = width;
+    while (right > width - (width >> 1) && this.isDarkColumn(pixels, stride, layout, right - 1, top, bottom)) {
+      right--;
+    }
+    // a dark or fading frame says nothing about the bars
+    if (right - left < width >> 1 || bottom - top < height >> 1) {
+      return;
+    }
+    // after a scene cut the old rectangle stays in use until the new scene has been measured
+    if (!this.detected || this.restart) {
+      this.left = left;
+      this.top = top;
+      this.right = right;
+      this.bottom = bottom;
+      this.detected = true;
+      this.restart = false;
+      return;
+    }
+    this.left = Math.min(this.left, left);
+    this.top = Math.min(this.top, top);
+    this.right = Math.max(this.right, right);
+    this.bottom = Math.max(this.bottom, bottom);
+  }
+
+  private boolean isDarkRow(
+      final MemorySegment pixels, final int stride, final PixelLayout layout, final int y) {
+    final long row = (long) y * stride;
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    for (int x = 0; x < this.width; x += SAMPLE_STEP) {
+      if (!this.isDark(layout.getRGB(pixels, row + (long) x * bytesPerPixel))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isDarkColumn(
+      final MemorySegment pixels,
+      final int stride,
+      final PixelLayout layout,
+      final int x,
+      final int top,
+      final int bottom) {
+    final long column = (long) x * layout.getBytesPerPixel();
+    for (int y = top; y < bottom; y += SAMPLE_STEP) {
+      if (!this.isDark(layout.getRGB(pixels, (long) y * stride + column))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isDark(final int rgb) {
+    final int max = Math.max(rgb >> 16 & 0xFF, Math.max(rgb >> 8 & 0xFF, rgb & 0xFF));
+    return max <= this.threshold;
+  }
+
+  private int getAverageLuma(final MemorySegment pixels, final int stride, final PixelLayout layout) {
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    long sum = 0;
+    int count = 0;
+    for (int y = SCENE_SAMPLE_STEP >> 1; y < this.height; y += SCENE_SAMPLE_STEP) {
+      final long row = (long) y * stride;
+      for (int x = SCENE_SAMPLE_STEP >> 1; x < this.width; x += SCENE_SAMPLE_STEP) {
+        final int rgb = layout.getRGB(pixels, row + (long) x * bytesPerPixel);
+        sum += ((rgb >> 16 & 0xFF) * 77 + (rgb >> 8 & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+        count++;
+      }
+    }
+    return count == 0 ? 0 : (int) (sum / count);
+  }
+
+  private FramePacket crop(
+      final FramePacket input,
+      final MemorySegment pixels,
+      final int stride,
+      final PixelLayout layout,
+      final int width,
+      final int height) {
+    if (input instanceof final BasicNativeFramePacket packet) {
+      return packet.crop(this.left, this.top, width, height);
+    }
+    final FramePacketPool pool = input instanceof final PooledPacket pooled ? pooled.getPool() : null;
+    final int length = width * height;
+    final int[] cropped = pool == null ? new int[length] : pool.acquireInts(length);
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    for (int y = 0; y < height; y++) {
+      final long row = (long) (this.top + y) * stride + (long) this.left * bytesPerPixel;
+      final int index = y * width;
+      if (layout == PixelLayout.INT_ARGB) {
+        MemorySegment.copy(pixels, ValueLayout.JAVA_INT_UNALIGNED, row, cropped, index, width);
+        continue;
+      }
+      for (int x = 0; x < width; x++) {
+        cropped[index + x] = layout.getRGB(pixels, row + (long) x * bytesPerPixel);
+      }
+    }
+    final byte[] audio = input.getAudioSamples();
+    final Object metadata = input.getMetadata();
+    if (pool == null) {
+      return new BasicFramePacket(cropped, audio, width, height, metadata, input.getTiming());
+    }
+    final byte[] copy = audio == null ? null : pool.acquireBytes(audio.length);
+    if (copy != null) {
+      System.arraycopy(audio, 0, copy, 0, audio.length);
+    }
+    return pool.createPacket(cropped, copy, width, height, metadata, input.getTiming());
+  }
+
+  /**
+   * Returns the part of the frame that was found to hold the picture.
+   *
+   * @return the left, top, right and bottom edges, or {@code null} before any bars were detected
+   */
+  public int[] getCropRectangle() {
+    return this.detected ? new int[] {this.left, this.top, this.right, this.bottom} : null;
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.PooledPacket;
+
+/**
+ * Resizes frames to a fixed resolution with an {@link AreaScaler}. Lets several pipelines fed by
+ * one {@link io.github.pulsebeat02.ezmediacore.pipeline.SharedPipelineResult} each work at their
+ * own resolution from the same decoded frame. Scaled samples come from the source packet's pool
+ * when it has one.
+ */
+public final class ScalePipelineStep implements FramePipelineStep<FramePacket, FramePacket> {
+
+  private final AreaScaler scaler;
+
+  public ScalePipelineStep(final int width, final int height) {
+    this.scaler = new AreaScaler(width, height);
+  }
+
+  @Override
+  public FramePacket process(final FramePacket input) {
+    final int width = this.scaler.getWidth();
+    final int height = this.scaler.getHeight();
+    final FramePacketPool pool = input instanceof final PooledPacket pooled ? pooled.getPool() : null;
+    final int length = width * height;
+    final int[] scaled = pool == null ? new int[length] : pool.acquireInts(length);
+    this.scaler.scale(input, scaled);
+    final byte[] audio = input.getAudioSamples();
+    final Object metadata = input.getMetadata();
+    if (pool == null) {
+      return new BasicFramePacket(scaled, audio, width, height, metadata, input.getTiming());
+    }
+    final byte[] copy = audio == null ? null : pool.acquireBytes(audio.length);
+    if (copy != null) {
+      System.arraycopy(audio, 0, copy, 0, audio.length);
+    }
+    return pool.createPacket(scaled, copy, width, height, metadata, input.getTiming());
+  }
+
+  public int getWidth() {
+    return this.scaler.getWidth();
+  }
+
+  public int getHeight() {
+    return this.scaler.getHeight();
+  }
+}
@@ -0,0 +1,196 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dithers with the best algorithm that fits in a per-frame time budget. Algorithms are ranked from
+ * most to least expensive. The step keeps an exponentially weighted average of its own latency,
+ * moves to a cheaper algorithm once the average overruns the budget, and moves back up once the
+ * average has stayed below the upgrade threshold for the hold period. A switch resets temporal
+ * coherence, so indices kept from the previous algorithm are not mixed with the new one.
+ */
+public final class AdaptiveDitherPipelineStep implements FramePipelineStep<FramePacket, DitheredPacket> {
+
+  private static final int SETTLE_FRAMES = 4;
+
+  private final DitherAlgorithm[] algorithms;
+  private final long budget;
+  private final long upgradeLatency;
+  private final double smoothing;
+  private final int hold;
+  private final DitherConfiguration configuration;
+  private final TemporalCoherence coherence;
+  private final OutputRing ring;
+  private final AtomicLong downgrades;
+  private final AtomicLong upgrades;
+
+  private volatile int level;
+  private volatile double latency;
+  private int framesSinceSwitch;
+
+  AdaptiveDitherPipelineStep(
+      final List<DitherAlgorithm> algorithms,
+      final Duration budget,
+      final double upgradeThreshold,
+      final double smoothing,
+      final int hold,
+      final DitherConfiguration configuration) {
+    checkArgument(!algorithms.isEmpty(), "At least one dither algorithm is required!");
+    checkArgument(!budget.isNegative() && !budget.isZero(), "Frame budget must be positive!");
+    checkArgument(upgradeThreshold > 0.0 && upgradeThreshold < 1.0, "Upgrade threshold must be between 0 and 1!");
+    checkArgument(smoothing > 0.0 && smoothing <= 1.0, "Smoothing factor must be greater than 0 and at most 1!");
+    checkArgument(hold > 0, "Hold period must be positive!");
+    this.algorithms = algorithms.toArray(DitherAlgorithm[]::new);
+    this.budget = budget.toNanos();
+    this.upgradeLatency = (long) (this.budget * upgradeThreshold);
+    this.smoothing = smoothing;
+    this.hold = hold;
+    this.configuration = checkNotNull(configuration, "Configuration cannot be null!");
+    this.coherence = configuration.isTemporalCoherence() ? new TemporalCoherence(configuration) : null;
+    this.ring = new OutputRing(configuration.getOutputBuffers());
+    this.downgrades = new AtomicLong();
+    this.upgrades = new AtomicLong();
+  }
+
+  public static AdaptiveDitherPipelineStepBuilder builder() {
+    return new AdaptiveDitherPipelineStepBuilder();
+  }
+
+  @Override
+  public DitheredPacket process(final FramePacket input) {
+    final int length = input.getImageWidth() * input.getImageHeight();
+    final FramePacketPool pool = DitherPipelineStep.getOutputPool(this.configuration, input);
+    final byte[] dithered = pool == null ? this.ring.next(length) : pool.acquireBytes(length);
+    final DitherAlgorithm dither = this.algorithms[this.level];
+    final long start = System.nanoTime();
+    DitherPipelineStep.ditherPacket(dither, input, dithered);
+    final long elapsed = System.nanoTime() - start;
+    if (this.coherence != null) {
+      this.coherence.apply(input.getRGBSamples(), dithered);
+    }
+    this.record(elapsed);
+    return DitheredFramePacket.create(input, dithered, pool);
+  }
+
+  private void record(final long elapsed) {
+    final double average =
+        this.framesSinceSwitch == 0 ? elapsed : this.latency + this.smoothing * (elapsed - this.latency);
+    this.latency = average;
+    this.framesSinceSwitch++;
+    if (average > this.budget && this.level < this.algorithms.length - 1 && this.framesSinceSwitch >= SETTLE_FRAMES) {
+      this.switchLevel(this.level + 1);
+      this.downgrades.incrementAndGet();
+    } else if (average < this.upgradeLatency && this.level > 0 && this.framesSinceSwitch >= this.hold) {
+      this.switchLevel(this.level - 1);
+      this.upgrades.incrementAndGet();
+    }
+  }
+
+  private void switchLevel(final int level) {
+    this.level = level;
+    this.framesSinceSwitch = 0;
+    if (this.coherence != null) {
+      this.coherence.reset();
+    }
+  }
+
+  public DitherAlgorithm getCurrentAlgorithm() {
+    return this.algorithms[this.level];
+  }
+
+  public int getCurrentLevel() {
+    return this.level;
+  }
+
+  public List<DitherAlgorithm> getAlgorithms() {
+    return List.of(this.algorithms);
+  }
+
+  public Duration getBudget() {
+    return Duration.ofNanos(this.budget);
+  }
+
+  public Duration getAverageLatency() {
+    return Duration.ofNanos((long) this.latency);
+  }
+
+  public long getDowngrades() {
+    return this.downgrades.get();
+  }
+
+  public long getUpgrades() {
+    return this.upgrades.get();
+  }
+
+  public DitherConfiguration getConfiguration() {
+    return this.configuration;
+  }
+
+  public double getUnchangedRatio() {
+    return this.coherence == null ? 0.0 : this.coherence.getUnchangedRatio();
+  }
+
+  public static class AdaptiveDitherPipelineStepBuilder {
+
+    private final List<DitherAlgorithm> algorithms = new ArrayList<>();
+    private Duration budget = Duration.ofMillis(20);
+    private double upgradeThreshold = 0.5;
+    private double smoothing = 0.2;
+    private int hold = 60;
+    private DitherConfiguration configuration = DitherConfiguration.DEFAULT;
+
+    /**
+     * Appends an algorithm to the ranking. Add the most expensive algorithm first and the cheapest
+     * last; playback starts at the first one.
+     *
+     * @param algorithm the algorithm
+     * @return the builder
+     */
+    public AdaptiveDitherPipelineStepBuilder algorithm(final DitherAlgorithm algorithm) {
+      this.algorithms.add(checkNotNull(algorithm, "Algorithm cannot be null!"));
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStepBuilder budget(final Duration budget) {
+      this.budget = budget;
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStepBuilder upgradeThreshold(final double upgradeThreshold) {
+      this.upgradeThreshold = upgradeThreshold;
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStepBuilder smoothing(final double smoothing) {
+      this.smoothing = smoothing;
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStepBuilder hold(final int hold) {
+      this.hold = hold;
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStepBuilder configuration(final DitherConfiguration configuration) {
+      this.configuration = configuration;
+      return this;
+    }
+
+    public AdaptiveDitherPipelineStep build() {
+      return new AdaptiveDitherPipelineStep(
+          this.algorithms, this.budget, this.upgradeThreshold, this.smoothing, this.hold, this.configuration);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BlueNoiseDither;
+import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
+
+public final class BlueNoiseDitherPipelineStep extends DitherPipelineStep<BlueNoiseDither> {
+
+  public BlueNoiseDitherPipelineStep(final ColorPalette palette) {
+    this(palette, BlueNoiseDither.DEFAULT_STRENGTH, DitherConfiguration.DEFAULT);
+  }
+
+  public BlueNoiseDitherPipelineStep(final ColorPalette palette, final float strength) {
+    this(palette, strength, DitherConfiguration.DEFAULT);
+  }
+
+  public BlueNoiseDitherPipelineStep(final ColorPalette palette, final float strength, final DitherConfiguration configuration) {
+    super(new BlueNoiseDither(palette, strength), configuration);
+  }
+}
@@ -0,0 +1,98 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class DitherConfiguration {
+
+  public static final DitherConfiguration DEFAULT = builder().build();
+
+  private final boolean temporalCoherence;
+  private final int temporalThreshold;
+  private final double sceneCutRatio;
+  private final int outputBuffers;
+
+  DitherConfiguration(
+      final boolean temporalCoherence, final int temporalThreshold, final double sceneCutRatio, final int outputBuffers) {
+    checkArgument(temporalThreshold >= 0 && temporalThreshold <= 255, "Temporal threshold must be between 0 and 255!");
+    checkArgument(sceneCutRatio > 0.0 && sceneCutRatio <= 1.0, "Scene cut ratio must be greater than 0 and at most 1!");
+    checkArgument(outputBuffers >= 0, "Output buffer count must not be negative!");
+    this.temporalCoherence = temporalCoherence;
+    this.temporalThreshold = temporalThreshold;
+    this.sceneCutRatio = sceneCutRatio;
+    this.outputBuffers = outputBuffers;
+  }
+
+  public static DitherConfigurationBuilder builder() {
+    return new DitherConfigurationBuilder();
+  }
+
+  public boolean isTemporalCoherence() {
+    return this.temporalCoherence;
+  }
+
+  public int getTemporalThreshold() {
+    return this.temporalThreshold;
+  }
+
+  public double getSceneCutRatio() {
+    return this.sceneCutRatio;
+  }
+
+  public int getOutputBuffers() {
+    return this.outputBuffers;
+  }
+
+  /**
+   * Identifies the settings that change the dithered output, for caches of dithered frames. The
+   * output ring only changes where the samples are stored, so it is left out.
+   *
+   * @return the cache key
+   */
+  public String getCacheKey() {
+    if (!this.temporalCoherence) {
+      return "none";
+    }
+    return "temporal:%d:%s".formatted(this.temporalThreshold, this.sceneCutRatio);
+  }
+
+  public static class DitherConfigurationBuilder {
+
+    private boolean temporalCoherence = false;
+    private int temporalThreshold = 6;
+    private double sceneCutRatio = 0.6;
+    private int outputBuffers = 0;
+
+    public DitherConfigurationBuilder temporalCoherence(final boolean temporalCoherence) {
+      this.temporalCoherence = temporalCoherence;
+      return this;
+    }
+
+    public DitherConfigurationBuilder temporalThreshold(final int temporalThreshold) {
+      this.temporalThreshold = temporalThreshold;
+      return this;
+    }
+
+    public DitherConfigurationBuilder sceneCutRatio(final double sceneCutRatio) {
+      this.sceneCutRatio = sceneCutRatio;
+      return this;
+    }
+
+    /**
+     * Sets how many output arrays the step cycles through instead of allocating one per frame. A
+     * dithered packet's samples are overwritten once this many newer frames have been dithered, so
+     * outputs that hold on to them for longer must copy them. Zero allocates a fresh array for every
+     * frame.
+     *
+     * @param outputBuffers the size of the output ring
+     * @return the builder
+     */
+    public DitherConfigurationBuilder outputBuffers(final int outputBuffers) {
+      this.outputBuffers = outputBuffers;
+      return this;
+    }
+
+    public DitherConfiguration build() {
+      return new DitherConfiguration(this.temporalCoherence, this.temporalThreshold, this.sceneCutRatio, this.outputBuffers);
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.PixelLayout;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.metrics.DitherEvent;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BlockChangeMask;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BlockChangePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.NativeFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.PooledPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+import java.lang.foreign.MemorySegment;
+
+public abstract class DitherPipelineStep<T extends DitherAlgorithm> implements FramePipelineStep<FramePacket, DitheredPacket> {
+
+  private final T dither;
+  private final DitherConfiguration configuration;
+  private final TemporalCoherence coherence;
+  private final OutputRing ring;
+
+  private byte[] previous;
+  private long sequence = -1;
+  private long frames;
+
+  public DitherPipelineStep(final T dither, final DitherConfiguration configuration) {
+    this.dither = dither;
+    this.configuration = configuration;
+    this.coherence = configuration.isTemporalCoherence() ? new TemporalCoherence(configuration) : null;
+    this.ring = new OutputRing(configuration.getOutputBuffers());
+  }
+
+  @Override
+  public DitheredPacket process(final FramePacket input) {
+    final DitherEvent event = new DitherEvent();
+    event.begin();
+    final byte[] dithered = this.ditherPacket(input);
+    event.end();
+    this.frames++;
+    if (event.shouldCommit()) {
+      event.algorithm = this.dither.getClass().getSimpleName();
+      event.frame = this.frames;
+      event.width = input.getImageWidth();
+      event.height = input.getImageHeight();
+      event.bytes = dithered.length;
+      event.partial = input instanceof BlockChangePacket && this.dither instanceof PositionalDitherAlgorithm;
+      event.commit();
+    }
+    if (this.coherence != null) {
+      this.coherence.apply(input.getRGBSamples(), dithered);
+    }
+    if (input instanceof BlockChangePacket && this.dither instanceof PositionalDitherAlgorithm) {
+      this.rememberOutput(dithered);
+    }
+    return DitheredFramePacket.create(input, dithered, this.getOutputPool(input));
+  }
+
+  private FramePacketPool getOutputPool(final FramePacket input) {
+    return getOutputPool(this.configuration, input);
+  }
+
+  static FramePacketPool getOutputPool(final DitherConfiguration configuration, final FramePacket input) {
+    if (configuration.getOutputBuffers() > 0) {
+      return null;
+    }
+    return input instanceof final PooledPacket pooled ? pooled.getPool() : null;
+  }
+
+  private byte[] ditherPacket(final FramePacket input) {
+    final int length = input.getImageWidth() * input.getImageHeight();
+    final FramePacketPool pool = this.getOutputPool(input);
+    final byte[] output = pool == null ? this.ring.next(length) : pool.acquireBytes(length);
+    if (input instanceof final BlockChangePacket packet && this.dither instanceof final PositionalDitherAlgorithm positional) {
+      this.ditherChangedBlocks(positional, packet, output);
+    } else {
+      ditherPacket(this.dither, input, output);
+    }
+    return output;
+  }
+
+  private void ditherChangedBlocks(final PositionalDitherAlgorithm positional, final BlockChangePacket input, final byte[] output) {
+    final BlockChangeMask mask = input.getChangeMask();
+    final boolean reuse = this.previous != null && this.previous.length == output.length && mask.getSequence() == this.sequence + 1;
+    this.sequence = mask.getSequence();
+    if (!reuse) {
+      ditherPacket(positional, input, output);
+      return;
+    }
+    if (mask.isClean()) {
+      System.arraycopy(this.previous, 0, output, 0, output.length);
+      return;
+    }
+
+    final int width = input.getImageWidth();
+    final int height = input.getImageHeight();
+    final int blockSize = mask.getBlockSize();
+    final int columns = mask.getColumns();
+    final NativeFramePacket pixels = input instanceof final NativeFramePacket packet ? packet : null;
+    final int[] rgb = pixels == null ? input.getRGBSamples() : new int[width];
+    for (int row = 0; row < mask.getRows(); row++) {
+      final int yStart = row * blockSize;
+      final int yEnd = Math.min(yStart + blockSize, height);
+      int column = 0;
+      while (column < columns) {
+        final boolean dirty = mask.isDirty(column, row);
+        int end = column + 1;
+        while (end < columns && mask.isDirty(end, row) == dirty) {
+          end++;
+        }
+        final int xStart = column * blockSize;
+        final int length = Math.min(end * blockSize, width) - xStart;
+        for (int y = yStart; y < yEnd; y++) {
+          final int index = y * width + xStart;
+          if (!dirty) {
+            System.arraycopy(this.previous, index, output, index, length);
+          } else if (pixels == null) {
+            positional.ditherRowIntoMinecraft(rgb, index, xStart, y, length, output, index);
+          } else {
+            readRow(pixels, xStart, y, length, rgb);
+            positional.ditherRowIntoMinecraft(rgb, 0, xStart, y, length, output, index);
+          }
+        }
+        column = end;
+      }
+    }
+  }
+
+  private void rememberOutput(final byte[] output) {
+    if (this.previous == null || this.previous.length != output.length) {
+      this.previous = new byte[output.length];
+    }
+    System.arraycopy(output, 0, this.previous, 0, output.length);
+  }
+
+  private static void readRow(final NativeFramePacket packet, final int x, final int y, final int length, final int[] output) {
+    final MemorySegment pixels = packet.getPixelSegment();
+    final PixelLayout layout = packet.getPixelLayout();
+    final int bytesPerPixel = layout.getBytesPerPixel();
+    final long row = (long) y * packet.getStride() + (long) x * bytesPerPixel;
+    for (int i = 0; i < length; i++) {
+      output[i] = layout.getRGB(pixels, row + (long) i * bytesPerPixel);
+    }
+  }
+
+  static void ditherPacket(final DitherAlgorithm dither, final FramePacket input, final byte[] output) {
+    final int width = input.getImageWidth();
+    final int height = input.getImageHeight();
+    if (input instanceof final NativeFramePacket packet) {
+      final MemorySegment pixels = packet.getPixelSegment();
+      dither.ditherIntoMinecraft(pixels, width, height, packet.getStride(), packet.getPixelLayout(), output, 0);
+    } else {
+      dither.ditherIntoMinecraft(input.getRGBSamples(), width, output, 0);
+    }
+  }
+
+  public T getAlgorithm() {
+    return this.dither;
+  }
+
+  public DitherConfiguration getConfiguration() {
+    return this.configuration;
+  }
+
+  public double getUnchangedRatio() {
+    return this.coherence == null ? 0.0 : this.coherence.getUnchangedRatio();
+  }
+}
@@ -0,0 +1,106 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.PositionalDitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.BasicFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
+import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacketPool;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.AreaScaler;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+
+/**
+ * Area-averages frames down to the output resolution with an {@link AreaScaler} and dithers them
+ * in the same pass. Source pixels are read once, straight from the packet, and only the scaled
+ * frame is ever stored. With a {@link PositionalDitherAlgorithm} every row is dithered as soon as it has been averaged; other
+ * algorithms dither the scaled frame as a whole.
+ */
+public final class DownscaleDitherPipelineStep<T extends DitherAlgorithm> implements FramePipelineStep<FramePacket, DitheredPacket> {
+
+  private final T dither;
+  private final int width;
+  private final int height;
+  private final DitherConfiguration configuration;
+  private final TemporalCoherence coherence;
+  private final OutputRing ring;
+  private final AreaScaler scaler;
+
+  public DownscaleDitherPipelineStep(final T dither, final int width, final int height) {
+    this(dither, width, height, DitherConfiguration.DEFAULT);
+  }
+
+  public DownscaleDitherPipelineStep(final T dither, final int width, final int height, final DitherConfiguration configuration) {
+    checkArgument(width > 0 && height > 0, "Output resolution must be positive!");
+    this.dither = dither;
+    this.width = width;
+    this.height = height;
+    this.configuration = configuration;
+    this.coherence = configuration.isTemporalCoherence() ? new TemporalCoherence(configuration) : null;
+    this.ring = new OutputRing(configuration.getOutputBuffers());
+    this.scaler = new AreaScaler(width, height);
+  }
+
+  @Override
+  public DitheredPacket process(final FramePacket input) {
+    this.scaler.setSource(input);
+    final int length = this.width * this.height;
+    final FramePacketPool pool = DitherPipelineStep.getOutputPool(this.configuration, input);
+    final int[] scaled = pool == null ? new int[length] : pool.acquireInts(length);
+    final byte[] dithered = pool == null ? this.ring.next(length) : pool.acquireBytes(length);
+    if (this.dither instanceof final PositionalDitherAlgorithm positional) {
+      for (int y = 0; y < this.height; y++) {
+        final int yIndex = y * this.width;
+        this.scaler.scaleRow(y, scaled, yIndex);
+        positional.ditherRowIntoMinecraft(scaled, yIndex, 0, y, this.width, dithered, yIndex);
+      }
+    } else {
+      for (int y = 0; y < this.height; y++) {
+        this.scaler.scaleRow(y, scaled, y * this.width);
+      }
+      this.dither.ditherIntoMinecraft(scaled, this.width, dithered, 0);
+    }
+    if (this.coherence != null) {
+      this.coherence.apply(scaled, dithered);
+    }
+
+    final byte[] audio = input.getAudioSamples();
+    final Object metadata = input.getMetadata();
+    if (pool == null) {
+      final FramePacket packet = new BasicFramePacket(scaled, audio, this.width, this.height, metadata, input.getTiming());
+      return DitheredFramePacket.create(packet, dithered);
+    }
+    final byte[] copy = audio == null ? null : pool.acquireBytes(audio.length);
+    if (copy != null) {
+      System.arraycopy(audio, 0, copy, 0, audio.length);
+    }
+    final FramePacket packet = pool.createPacket(scaled, copy, this.width, this.height, metadata, input.getTiming());
+    try {
+      return DitheredFramePacket.create(packet, dithered, pool);
+    } finally {
+      packet.release();
+    }
+  }
+
+  public T getAlgorithm() {
+    return this.dither;
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  public DitherConfiguration getConfiguration() {
+    return this.configuration;
+  }
+
+  public double getUnchangedRatio() {
+    return this.coherence == null ? 0.0 : this.coherence.getUnchangedRatio();
+  }
+}
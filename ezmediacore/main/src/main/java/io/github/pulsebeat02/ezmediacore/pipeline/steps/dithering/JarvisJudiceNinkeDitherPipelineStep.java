@@ -2,24 +2,14 @@ package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
 
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.JarvisJudiceNinkeDither;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
 
-public final class JarvisJudiceNinkeDitherPipelineStep implements FramePipelineStep<FramePacket, DitheredPacket> {
-
-  private final JarvisJudiceNinkeDither dither;
+public final class JarvisJudiceNinkeDitherPipelineStep extends DitherPipelineStep<JarvisJudiceNinkeDither> {
 
   public JarvisJudiceNinkeDitherPipelineStep(final ColorPalette palette) {
-    this.dither = new JarvisJudiceNinkeDither(palette);
+    this(palette, DitherConfiguration.DEFAULT);
   }
 
-  @Override
-  public DitheredPacket process(final FramePacket input) {
-    final int[] rgb = input.getRGBSamples();
-    final int width = input.getImageWidth();
-    final byte[] dithered = this.dither.standardMinecraftDither(rgb, width);
-    return DitheredFramePacket.create(input, dithered);
+  public JarvisJudiceNinkeDitherPipelineStep(final ColorPalette palette, final DitherConfiguration configuration) {
+    super(new JarvisJudiceNinkeDither(palette), configuration);
   }
-}
\ No newline at end of file
+}
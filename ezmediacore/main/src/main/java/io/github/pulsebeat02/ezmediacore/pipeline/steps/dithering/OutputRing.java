@@ -0,0 +1,26 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+final class OutputRing {
+
+  private final byte[][] buffers;
+
+  private int cursor;
+
+  OutputRing(final int size) {
+    this.buffers = new byte[size][];
+  }
+
+  byte[] next(final int length) {
+    if (this.buffers.length == 0) {
+      return new byte[length];
+    }
+    final int index = this.cursor;
+    this.cursor = (index + 1) % this.buffers.length;
+    byte[] output = this.buffers[index];
+    if (output == null || output.length != length) {
+      output = new byte[length];
+      this.buffers[index] = output;
+    }
+    return output;
+  }
+}
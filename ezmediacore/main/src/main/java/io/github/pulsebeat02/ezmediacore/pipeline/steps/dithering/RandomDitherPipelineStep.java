@@ -2,24 +2,14 @@ package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
 
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDither;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
 
-public final class RandomDitherPipelineStep implements FramePipelineStep<FramePacket, DitheredPacket> {
-
-  private final RandomDither dither;
+public final class RandomDitherPipelineStep extends DitherPipelineStep<RandomDither> {
 
   public RandomDitherPipelineStep(final ColorPalette palette, final int weight) {
-    this.dither = new RandomDither(palette, weight, false);
+    this(palette, weight, DitherConfiguration.DEFAULT);
   }
 
-  @Override
-  public DitheredPacket process(final FramePacket input) {
-    final int[] rgb = input.getRGBSamples();
-    final int width = input.getImageWidth();
-    final byte[] dithered = this.dither.standardMinecraftDither(rgb, width);
-    return DitheredFramePacket.create(input, dithered);
+  public RandomDitherPipelineStep(final ColorPalette palette, final int weight, final DitherConfiguration configuration) {
+    super(new RandomDither(palette, weight, false), configuration);
   }
 }
@@ -2,24 +2,14 @@ package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
 
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.StuckiDither;
 import io.github.pulsebeat02.ezmediacore.dither.palette.ColorPalette;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredFramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.DitheredPacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.frame.FramePacket;
-import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
 
-public final class StuckiDitherPipelineStep implements FramePipelineStep<FramePacket, DitheredPacket> {
-
-  private final StuckiDither dither;
+public final class StuckiDitherPipelineStep extends DitherPipelineStep<StuckiDither> {
 
   public StuckiDitherPipelineStep(final ColorPalette palette) {
-    this.dither = new StuckiDither(palette);
+    this(palette, DitherConfiguration.DEFAULT);
   }
 
-  @Override
-  public DitheredPacket process(final FramePacket input) {
-    final int[] rgb = input.getRGBSamples();
-    final int width = input.getImageWidth();
-    final byte[] dithered = this.dither.standardMinecraftDither(rgb, width);
-    return DitheredFramePacket.create(input, dithered);
+  public StuckiDitherPipelineStep(final ColorPalette palette, final DitherConfiguration configuration) {
+    super(new StuckiDither(palette), configuration);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package io.github.pulsebeat02.ezmediacore.pipeline.steps.dithering;
+
+/**
+ * Keeps the palette index of every pixel whose source color moved by at most the configured
+ * threshold per channel since the index was last computed. The reference color of a pixel only
+ * advances when its index is recomputed, so slow drifts still catch up once they add up past the
+ * threshold. When more than the scene cut ratio of pixels change at once, the state is rebuilt
+ * from the new frame.
+ */
+final class TemporalCoherence {
+
+  private final int threshold;
+  private final double sceneCutRatio;
+
+  private int[] reference;
+  private byte[] previous;
+  private volatile double unchangedRatio;
+
+  TemporalCoherence(final DitherConfiguration configuration) {
+    this.threshold = configuration.getTemporalThreshold();
+    this.sceneCutRatio = configuration.getSceneCutRatio();
+  }
+
+  void apply(final int[] source, final byte[] output) {
+    final int length = source.length;
+    if (this.reference == null || this.reference.length != length) {
+      this.reference = source.clone();
+      this.previous = new byte[length];
+      System.arraycopy(output, 0, this.previous, 0, length);
+      this.unchangedRatio = 0.0;
+      return;
+    }
+    if (this.isSceneCut(source)) {
+      this.unchangedRatio = this.countUnchanged(output) / (double) length;
+      System.arraycopy(source, 0, this.reference, 0, length);
+      System.arraycopy(output, 0, this.previous, 0, length);
+      return;
+    }
+    int unchanged = 0;
+    for (int i = 0; i < length; i++) {
+      if (this.isSimilar(source[i], this.reference[i])) {
+        output[i] = this.previous[i];
+        unchanged++;
+      } else {
+        this.reference[i] = source[i];
+        if (output[i] == this.previous[i]) {
+          unchanged++;
+        } else {
+          this.previous[i] = output[i];
+        }
+      }
+    }
+    this.unchangedRatio = unchanged / (double) length;
+  }
+
+  /** Drops the kept indices, so the next frame is taken over as a whole. */
+  void reset() {
+    this.reference = null;
+    this.previous = null;
+  }
+
+  private boolean isSceneCut(final int[] source) {
+    final int length = source.length;
+    final int limit = (int) (length * this.sceneCutRatio);
+    int changed = 0;
+    for (int i = 0; i < length; i++) {
+      if (!this.isSimilar(source[i], this.reference[i]) && ++changed > limit) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int countUnchanged(final byte[] output) {
+    int unchanged = 0;
+    for (int i = 0; i < output.length; i++) {
+      if (output[i] == this.previous[i]) {
+        unchanged++;
+      }
+    }
+    return unchanged;
+  }
+
+  private boolean isSimilar(final int current, final int reference) {
+    if (current == reference) {
+      return true;
+    }
+    final int dr = Math.abs((current >> 16 & 0xFF) - (reference >> 16 & 0xFF));
+    final int dg = Math.abs((current >> 8 & 0xFF) - (reference >> 8 & 0xFF));
+    final int db = Math.abs((current & 0xFF) - (reference & 0xFF));
+    return dr <= this.threshold && dg <= this.threshold && db <= this.threshold;
+  }
+
+  double getUnchangedRatio() {
+    return this.unchangedRatio;
+  }
+}
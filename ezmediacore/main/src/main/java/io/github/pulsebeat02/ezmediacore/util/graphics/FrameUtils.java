@@ -1,9 +1,15 @@
 package io.github.pulsebeat02.ezmediacore.util.graphics;
 
+import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.Java2DFrameConverter;
+import io.github.pulsebeat02.ezmediacore.metrics.FrameDecodeEvent;
 
 import java.awt.image.BufferedImage;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 public final class FrameUtils {
@@ -12,9 +18,16 @@ public final class FrameUtils {
   }
 
   public static byte[] getAudioSamples(final Frame captured) {
+    return getAudioSamples(captured, new byte[getAudioSampleLength(captured)]);
+  }
+
+  public static int getAudioSampleLength(final Frame captured) {
+    return captured.samples[0].capacity() * 2;
+  }
+
+  public static byte[] getAudioSamples(final Frame captured, final byte[] samples) {
     final ShortBuffer channelSamplesShortBuffer = (ShortBuffer) captured.samples[0];
     channelSamplesShortBuffer.rewind();
-    final byte[] samples = new byte[channelSamplesShortBuffer.capacity() * 2];
     for (int i = 0; i < channelSamplesShortBuffer.capacity(); i++) {
       final short val = channelSamplesShortBuffer.get(i);
       samples[i * 2] = (byte) (val & 0xff);
@@ -23,11 +36,86 @@ public final class FrameUtils {
     return samples;
   }
 
-  public static  int[] getRGBSamples(final int width, final int height, final Frame captured) {
+  public static int[] getRGBSamples(final int width, final int height, final Frame captured) {
+    return getRGBSamples(width, height, captured, new int[width * height]);
+  }
+
+  public static int[] getRGBSamples(
+      final int width, final int height, final Frame captured, final int[] rgbSamples) {
+    return getRGBSamples(width, height, captured, avutil.AV_PIX_FMT_NONE, rgbSamples);
+  }
+
+  /**
+   * Copies the pixels of a frame into a packed ARGB array. Frames in {@code AV_PIX_FMT_BGRA}, the
+   * format the FFmpeg grabbers ask for, store blue, green, red and alpha bytes, which read as one
+   * little-endian {@code 0xAARRGGBB} integer per pixel; they are copied with a single bulk read per
+   * frame, or per row when the rows are padded. Any other frame goes through a {@link
+   * BufferedImage}.
+   *
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @param captured the frame
+   * @param pixelFormat the {@code AV_PIX_FMT_*} format the frame was decoded to
+   * @param rgbSamples the array to fill, at least {@code width * height} long
+   * @return {@code rgbSamples}
+   */
+  public static int[] getRGBSamples(
+      final int width,
+      final int height,
+      final Frame captured,
+      final int pixelFormat,
+      final int[] rgbSamples) {
+    if (pixelFormat == avutil.AV_PIX_FMT_BGRA && isPacked(width, height, captured)) {
+      return copyPackedSamples(width, height, captured, rgbSamples);
+    }
     final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
     Java2DFrameConverter.copy(image, captured);
-    final int[] rgbSamples = new int[width * height];
     image.getRGB(0, 0, width, height, rgbSamples, 0, width);
     return rgbSamples;
   }
+
+  private static boolean isPacked(final int width, final int height, final Frame captured) {
+    return captured.image != null
+        && captured.image[0] instanceof ByteBuffer
+        && captured.imageDepth == Frame.DEPTH_UBYTE
+        && captured.imageChannels == 4
+        && captured.imageWidth == width
+        && captured.imageHeight == height
+        && captured.imageStride >= width << 2;
+  }
+
+  private static int[] copyPackedSamples(
+      final int width, final int height, final Frame captured, final int[] rgbSamples) {
+    final ByteBuffer buffer = ((ByteBuffer) captured.image[0]).duplicate();
+    buffer.clear();
+    final IntBuffer pixels = buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    final int stride = captured.imageStride >> 2;
+    if (stride == width) {
+      pixels.get(0, rgbSamples, 0, width * height);
+      return rgbSamples;
+    }
+    for (int y = 0; y < height; y++) {
+      pixels.get(y * stride, rgbSamples, y * width, width);
+    }
+    return rgbSamples;
+  }
+
+  public static MemorySegment getPixelSegment(final Frame captured) {
+    return MemorySegment.ofBuffer(captured.image[0]);
+  }
+
+  public static void commitDecodeEvent(
+      final FrameDecodeEvent event, final String grabber, final long frame, final Frame captured) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.grabber = grabber;
+    event.frame = frame;
+    if (captured != null) {
+      event.width = captured.imageWidth;
+      event.height = captured.imageHeight;
+      event.audioBytes = captured.samples == null ? 0 : getAudioSampleLength(captured);
+    }
+    event.commit();
+  }
 }
@@ -0,0 +1,113 @@
+package io.github.pulsebeat02.ezmediacore;
+
+import io.github.pulsebeat02.ezmediacore.pipeline.BasicPipelineResult;
+import io.github.pulsebeat02.ezmediacore.pipeline.FramePipeline;
+import io.github.pulsebeat02.ezmediacore.pipeline.steps.FramePipelineStep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the per-frame cost of running a chain of cheap steps with the compiled pipeline and with
+ * the plain step loop. Several pipelines with different step orders run side by side so that the
+ * loop's call site sees many step types, as it does on a server with many screens.
+ */
+public final class PipelineOverheadBenchmark {
+
+  private static final int PIPELINES = 8;
+  private static final int WARMUP = 2_000_000;
+  private static final int FRAMES = 10_000_000;
+
+  public static void main(final String[] args) {
+    for (int round = 0; round < 3; round++) {
+      final double interpreted = measure(false);
+      final double compiled = measure(true);
+      System.out.printf("round %d: interpreted %.2f ns/frame, compiled %.2f ns/frame%n", round, interpreted, compiled);
+    }
+  }
+
+  private static double measure(final boolean compiled) {
+    final long[] sink = new long[1];
+    final List<BasicPipelineResult> results = createPipelines(compiled, sink);
+    run(results, WARMUP);
+    final long start = System.nanoTime();
+    run(results, FRAMES);
+    final long elapsed = System.nanoTime() - start;
+    if (sink[0] == 42) {
+      System.out.println();
+    }
+    return (double) elapsed / FRAMES;
+  }
+
+  private static void run(final List<BasicPipelineResult> results, final int frames) {
+    for (int i = 0; i < frames; i++) {
+      results.get(i % PIPELINES).executePipeline(new long[] {i});
+    }
+  }
+
+  private static List<BasicPipelineResult> createPipelines(final boolean compiled, final long[] sink) {
+    final List<FramePipelineStep<long[], long[]>> steps = List.of(
+            new Add(), new Multiply(), new Xor(), new Shift(), new Negate(), new Rotate());
+    final List<BasicPipelineResult> results = new ArrayList<>();
+    for (int i = 0; i < PIPELINES; i++) {
+      final FramePipelineStep<long[], long[]> first = steps.get(i % steps.size());
+      final FramePipelineStep<long[], long[]> second = steps.get((i + 1) % steps.size());
+      final FramePipelineStep<long[], long[]> third = steps.get((i + 2) % steps.size());
+      final FramePipelineStep<long[], long[]> fourth = steps.get((i + 3) % steps.size());
+      final BasicPipelineResult result = FramePipeline.source(long[].class)
+              .thenPipe(first, second, third, fourth)
+              .thenFinally(input -> sink[0] += input[0]);
+      result.setCompiled(compiled);
+      results.add(result);
+    }
+    return results;
+  }
+
+  private static final class Add implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] += 7;
+      return input;
+    }
+  }
+
+  private static final class Multiply implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] *= 31;
+      return input;
+    }
+  }
+
+  private static final class Xor implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] ^= 0x5DEECE66DL;
+      return input;
+    }
+  }
+
+  private static final class Shift implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] += input[0] >>> 7;
+      return input;
+    }
+  }
+
+  private static final class Negate implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] = ~input[0];
+      return input;
+    }
+  }
+
+  private static final class Rotate implements FramePipelineStep<long[], long[]> {
+    @Override
+    public long[] process(final long[] input) {
+      input[0] = Long.rotateLeft(input[0], 13);
+      return input;
+    }
+  }
+}
@@ -24,6 +24,8 @@
 package io.github.pulsebeat02.ezmediacore.nms.impl.v1_21_R1;
 
 import io.github.pulsebeat02.ezmediacore.nms.PacketHandler;
+import io.github.pulsebeat02.ezmediacore.nms.jfr.MapTileSliceEvent;
+import io.github.pulsebeat02.ezmediacore.nms.jfr.PacketDispatchEvent;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -106,6 +108,8 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
           final int videoWidth,
           final int xOff,
           final int yOff) {
+    final MapTileSliceEvent event = new MapTileSliceEvent();
+    event.begin();
     final int vidHeight = rgb.length / videoWidth;
     final int negXOff = xOff + videoWidth;
     final int negYOff = yOff + vidHeight;
@@ -116,6 +120,7 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     final ClientboundMapItemDataPacket[] packetArray =
             new ClientboundMapItemDataPacket[(xLoopMax - xLoopMin) * (yLoopMax - yLoopMin)];
     int arrIndex = 0;
+    long bytes = 0;
     for (int y = yLoopMin; y < yLoopMax; y++) {
 
       final int relY = y << 7;
@@ -130,6 +135,7 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
         final int xPixMax = xDiff + topX;
         final int yPixMax = yDiff + topY;
         final byte[] mapData = new byte[xDiff * yDiff];
+        bytes += mapData.length;
 
         //        IMPLEMENTATION #1
         //        IntStream.range(topY, yPixMax).parallel().forEach(iy -> {
@@ -168,28 +174,37 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
         packetArray[arrIndex++] = packet;
       }
     }
-    this.sendMapPackets(viewers, packetArray);
+    event.end();
+    if (event.shouldCommit()) {
+      event.screen = map;
+      event.tiles = packetArray.length;
+      event.width = videoWidth;
+      event.height = vidHeight;
+      event.bytes = bytes;
+      event.commit();
+    }
+    this.sendMapPackets(viewers, packetArray, map, bytes);
   }
 
   private void sendMapPackets(
-          final UUID[] viewers, final ClientboundMapItemDataPacket[] packetArray) {
+          final UUID[] viewers, final ClientboundMapItemDataPacket[] packetArray, final int map, final long bytes) {
     if (viewers == null) {
-      this.sendMapPacketsToAll(packetArray);
+      this.sendMapPacketsToAll(packetArray, map, bytes);
     } else {
-      this.sendMapPacketsToSpecified(viewers, packetArray);
+      this.sendMapPacketsToSpecified(viewers, packetArray, map, bytes);
     }
   }
 
   private void sendMapPacketsToSpecified(
-          final UUID[] viewers, final ClientboundMapItemDataPacket[] packetArray) {
+          final UUID[] viewers, final ClientboundMapItemDataPacket[] packetArray, final int map, final long bytes) {
     for (final UUID uuid : viewers) {
-      this.sendMapPacketsToViewers(uuid, packetArray);
+      this.sendMapPacketsToViewers(uuid, packetArray, map, bytes);
     }
   }
 
-  private void sendMapPacketsToAll(final ClientboundMapItemDataPacket[] packetArray) {
+  private void sendMapPacketsToAll(final ClientboundMapItemDataPacket[] packetArray, final int map, final long bytes) {
     for (final UUID uuid : this.connections.keySet()) {
-      this.sendMapPacketsToViewers(uuid, packetArray);
+      this.sendMapPacketsToViewers(uuid, packetArray, map, bytes);
     }
   }
 
@@ -318,13 +333,17 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       return;
     }
 
+    final PacketDispatchEvent event = new PacketDispatchEvent();
+    event.begin();
     for (final ClientboundSetEntityDataPacket packet : packets) {
       connection.send(packet);
     }
+    event.end();
+    this.commitDispatchEvent(event, uuid, "entity", -1, packets.length, 0);
   }
 
   private void sendMapPacketsToViewers(
-          final UUID uuid, final ClientboundMapItemDataPacket[] packetArray) {
+          final UUID uuid, final ClientboundMapItemDataPacket[] packetArray, final int map, final long bytes) {
     final long val = this.lastUpdated.getOrDefault(uuid, 0L);
     if (System.currentTimeMillis() - val > PACKET_THRESHOLD_MS) {
       final ServerGamePacketListenerImpl connection = this.connections.get(uuid);
@@ -332,7 +351,28 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
         return;
       }
       this.updateTime(uuid);
+      final PacketDispatchEvent event = new PacketDispatchEvent();
+      event.begin();
       this.sendSeparatePackets(packetArray, connection);
+      event.end();
+      this.commitDispatchEvent(event, uuid, "map", map, packetArray.length, bytes);
+    }
+  }
+
+  private void commitDispatchEvent(
+          final PacketDispatchEvent event,
+          final UUID uuid,
+          final String kind,
+          final int screen,
+          final int packets,
+          final long bytes) {
+    if (event.shouldCommit()) {
+      event.viewer = uuid.toString();
+      event.kind = kind;
+      event.screen = screen;
+      event.packets = packets;
+      event.bytes = bytes;
+      event.commit();
     }
   }
 